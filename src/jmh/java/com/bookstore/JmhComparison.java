@@ -0,0 +1,85 @@
+package com.bookstore;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files, such as the results of the last release
+ * and of the current branch: {@code gradle jmhCompare -Pbaseline=<file>}.
+ * Prints the score and the bytes allocated per operation of every benchmark
+ * in both, with the relative change.
+ */
+public class JmhComparison {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: JmhComparison <baseline.json> <current.json>");
+        }
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        System.out.printf("%-70s %12s %12s %8s %12s %12s %8s%n", "benchmark", "baseline", "current", "change",
+                "B/op before", "B/op after", "change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            double scoreAfter = after.path("primaryMetric").path("score").asDouble();
+            double allocationAfter = allocation(after);
+            if (before == null) {
+                System.out.printf("%-70s %12s %12.3f %8s %12s %12.0f %8s%n", entry.getKey(), "-", scoreAfter, "new",
+                        "-", allocationAfter, "");
+                continue;
+            }
+            double scoreBefore = before.path("primaryMetric").path("score").asDouble();
+            double allocationBefore = allocation(before);
+            System.out.printf("%-70s %12.3f %12.3f %8s %12.0f %12.0f %8s%n", entry.getKey(), scoreBefore, scoreAfter,
+                    change(scoreBefore, scoreAfter), allocationBefore, allocationAfter,
+                    change(allocationBefore, allocationAfter));
+        }
+        for (String removed : baseline.keySet()) {
+            if (!current.containsKey(removed)) {
+                System.out.printf("%-70s %12s%n", removed, "removed");
+            }
+        }
+        System.out.println("Scores are in the unit of each benchmark (see its @OutputTimeUnit and mode).");
+    }
+
+    // Results keyed by benchmark name and parameters
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                    .replaceFirst("^com\\.bookstore\\.", ""));
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(key.indexOf("(") < 0 ? " (" : ", ").append(param.getKey()).append('=')
+                        .append(param.getValue().asText());
+            }
+            if (key.indexOf("(") >= 0) {
+                key.append(')');
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static double allocation(JsonNode result) {
+        return result.path("secondaryMetrics").path(ALLOCATION).path("score").asDouble(Double.NaN);
+    }
+
+    private static String change(double before, double after) {
+        if (Double.isNaN(before) || Double.isNaN(after) || before == 0) {
+            return "";
+        }
+        return String.format("%+.1f%%", (after - before) / before * 100);
+    }
+}
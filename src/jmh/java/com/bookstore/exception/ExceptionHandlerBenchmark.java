@@ -0,0 +1,99 @@
+package com.bookstore.exception;
+
+import com.bookstore.controller.BookController;
+import com.bookstore.dto.BookDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Error responses from {@link GlobalExceptionHandler}: creating the exception
+ * as a service or the validator would, handling it, and serializing the body.
+ * Stack traces here are shallower than under a real request, so the creation
+ * costs are a lower bound. Logging is off (see {@code logback.xml}), leaving
+ * only the work done on its arguments.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private ObjectWriter writer;
+    private WebRequest request;
+    private MethodParameter createBookParameter;
+    private BookDto invalidBook;
+    private final OutputStream out = OutputStream.nullOutputStream();
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        handler = new GlobalExceptionHandler();
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        // The response stream stays open after the body, as under a real request
+        writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        request = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/books/42"));
+        createBookParameter = new MethodParameter(
+                BookController.class.getMethod("createBook", BookDto.class), 0);
+        invalidBook = new BookDto();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> notFound() throws IOException {
+        return write(handler.handleEntityNotFoundException(
+                new EntityNotFoundException("Book not found with id: 42"), request));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> validationFailed() throws IOException {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(invalidBook, "bookDto");
+        bindingResult.rejectValue("title", "NotBlank", "Title is required");
+        bindingResult.rejectValue("price", "NotNull", "Price is required");
+        bindingResult.rejectValue("authorId", "NotNull", "Author ID is required");
+        return write(handler.handleValidationExceptions(
+                new MethodArgumentNotValidException(createBookParameter, bindingResult)));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> serviceUnavailable() throws IOException {
+        return write(handler.handleServiceUnavailableException(
+                new ServiceUnavailableException("Too many sign-in requests, please retry later",
+                        Duration.ofSeconds(2)), request));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> internalError() throws IOException {
+        return write(handler.globalExceptionHandler(new IllegalStateException("Unexpected state"), request));
+    }
+
+    private ResponseEntity<?> write(ResponseEntity<?> response) throws IOException {
+        writer.writeValue(out, response.getBody());
+        return response;
+    }
+}
@@ -0,0 +1,163 @@
+package com.bookstore.search;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.event.CatalogEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * {@link FacetIndex#select} against the SQL it replaces on H2: the first page,
+ * the total, and one GROUP BY per facet, each facet's counts applying only the
+ * other facets' selections. Both sides see the same books. {@code filter} is
+ * {@code author-price} (ten authors and one price bucket) or {@code price}
+ * (one price bucket). H2 result reuse is off, so every SQL call does the work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FacetBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final String PRICE_BUCKET = "case when price < 10 then '0-10' when price < 20 then '10-20'"
+            + " when price < 50 then '20-50' when price < 100 then '50-100' else '100+' end";
+
+    @Param({"200000"})
+    private int books;
+
+    @Param({"1000"})
+    private int authors;
+
+    @Param({"author-price", "price"})
+    private String filter;
+
+    private FacetIndex facetIndex;
+    private FacetFilter facetFilter;
+
+    private Connection connection;
+    private List<PreparedStatement> statements;
+
+    @Setup
+    public void setup() throws SQLException {
+        facetIndex = new FacetIndex();
+        ReflectionTestUtils.setField(facetIndex, "priceBounds", new BigDecimal[] {
+                new BigDecimal("10"), new BigDecimal("20"), new BigDecimal("50"), new BigDecimal("100")});
+        ReflectionTestUtils.setField(facetIndex, "maxValues", 50);
+        facetIndex.init();
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:facets;OPTIMIZE_REUSE_RESULTS=FALSE", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table authors (id bigint primary key, name varchar(255))");
+            statement.execute("create table books (id bigint primary key, author_id bigint, price decimal(10, 2),"
+                    + " created_date timestamp)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("insert into authors values (?, ?)")) {
+            for (long id = 1; id <= authors; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, "Author " + id);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        try (PreparedStatement insert = connection.prepareStatement("insert into books values (?, ?, ?, ?)")) {
+            for (long id = 1; id <= books; id++) {
+                long authorId = 1 + random.nextInt(authors);
+                BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(14_900), 2);
+                LocalDateTime createdDate = start.plusHours(random.nextInt(5 * 365 * 24));
+                insert.setLong(1, id);
+                insert.setLong(2, authorId);
+                insert.setBigDecimal(3, price);
+                insert.setTimestamp(4, Timestamp.valueOf(createdDate));
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+                facetIndex.onCatalogEvent(CatalogEvent.bookCreated(new BookDto(id, "Book " + id, null, price,
+                        null, authorId, "Author " + authorId, createdDate)));
+            }
+            insert.executeBatch();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create index books_author on books (author_id)");
+            statement.execute("create index books_price on books (price)");
+            statement.execute("create index books_created_date on books (created_date)");
+            statement.execute("analyze");
+        }
+
+        Set<Long> authorIds = "author-price".equals(filter)
+                ? LongStream.rangeClosed(1, 10).boxed().collect(Collectors.toSet())
+                : Set.of();
+        facetFilter = new FacetFilter(authorIds, Set.of("10-20"), null, null);
+
+        String authorCondition = authorIds.isEmpty() ? "1 = 1" : "author_id in (" + authorIds.stream()
+                .map(String::valueOf).collect(Collectors.joining(", ")) + ")";
+        String priceCondition = "price >= 10 and price < 20";
+        String where = " where " + authorCondition + " and " + priceCondition;
+        statements = new ArrayList<>();
+        statements.add(connection.prepareStatement("select id from books" + where + " order by id limit " + PAGE_SIZE));
+        statements.add(connection.prepareStatement("select count(*) from books" + where));
+        statements.add(connection.prepareStatement("select b.author_id, a.name, count(*) from books b"
+                + " join authors a on a.id = b.author_id where " + priceCondition
+                + " group by b.author_id, a.name order by count(*) desc, b.author_id limit 50"));
+        statements.add(connection.prepareStatement("select " + PRICE_BUCKET + ", count(*) from books where "
+                + authorCondition + " group by " + PRICE_BUCKET));
+        statements.add(connection.prepareStatement("select year(created_date) * 12 + month(created_date) - 1 as m,"
+                + " count(*) from books" + where + " group by m order by m desc limit 50"));
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public FacetIndex.Selection bitmaps() {
+        return facetIndex.select(facetFilter, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public void sql(Blackhole blackhole) throws SQLException {
+        for (PreparedStatement statement : statements) {
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    blackhole.consume(rows.getObject(1));
+                }
+            }
+        }
+    }
+}
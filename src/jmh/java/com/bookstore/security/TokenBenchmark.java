@@ -0,0 +1,95 @@
+package com.bookstore.security;
+
+import com.bookstore.model.Role;
+import com.bookstore.model.User;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request work of token authentication: issuing a token at sign-in,
+ * verifying one (from the verified-token cache, or decoded and checked when
+ * the cache is off or misses), and building the principal, from a loaded
+ * user or from the claims.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBenchmark {
+
+    private static final String SECRET = "5A7234753778214125442A472D4B6150645367566B59703373367639792F423F";
+
+    private JwtUtils jwtUtils;
+    private JwtUtils uncachedJwtUtils;
+    private UsernamePasswordAuthenticationToken authentication;
+    private String token;
+    private Claims claims;
+    private User user;
+
+    @Setup
+    public void setup() {
+        jwtUtils = jwtUtils(10000L);
+        uncachedJwtUtils = jwtUtils(0L);
+
+        user = new User("admin", "admin@example.com", "$2a$10$abcdefghijklmnopqrstuuJ2cRgjBD5xK6ZaJpnv7y0Q3jVsK/Ze");
+        user.setId(1L);
+        user.setRole(Role.ADMIN);
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        token = jwtUtils.generateJwtToken(authentication);
+        claims = jwtUtils.parseClaims(token);
+    }
+
+    private static JwtUtils jwtUtils(long verifiedCacheSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheSize", verifiedCacheSize);
+        ReflectionTestUtils.setField(jwtUtils, "rejectionLogInterval", Duration.ofMinutes(10));
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    @Benchmark
+    public String generateJwtToken() {
+        return jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public Claims parseClaimsCached() {
+        return jwtUtils.parseClaims(token);
+    }
+
+    @Benchmark
+    public Claims parseClaimsVerified() {
+        return uncachedJwtUtils.parseClaims(token);
+    }
+
+    @Benchmark
+    public UserDetailsImpl buildFromUser() {
+        return UserDetailsImpl.build(user);
+    }
+
+    @Benchmark
+    public UserDetailsImpl buildFromClaims() {
+        return UserDetailsImpl.fromToken(claims.get(JwtUtils.CLAIM_USER_ID, Long.class), claims.getSubject(),
+                Role.valueOf(claims.get(JwtUtils.CLAIM_ROLE, String.class)),
+                claims.get(JwtUtils.CLAIM_TOKEN_VERSION, Long.class));
+    }
+}
@@ -0,0 +1,69 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.model.Author;
+import com.bookstore.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BookService#convertToDto} on a single book and on the 1000 books of
+ * a listing, with the author already loaded, as on every read path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookDtoBenchmark {
+
+    private BookService bookService;
+    private Book book;
+    private List<Book> books;
+
+    @Setup
+    public void setup() {
+        bookService = new BookService();
+        books = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Author author = new Author("Author " + i % 50, "Biography of author " + i % 50);
+            author.setId((long) i % 50);
+            Book book = new Book("Book " + i, null, new BigDecimal("19.99"), "Description of book " + i);
+            book.setId((long) i);
+            book.setAuthor(author);
+            ReflectionTestUtils.setField(book, "createdDate", LocalDateTime.now());
+            books.add(book);
+        }
+        book = books.get(0);
+    }
+
+    @Benchmark
+    public BookDto convertToDto() {
+        return bookService.convertToDto(book);
+    }
+
+    @Benchmark
+    public List<BookDto> convertListing() {
+        List<BookDto> dtos = new ArrayList<>(books.size());
+        for (Book book : books) {
+            dtos.add(bookService.convertToDto(book));
+        }
+        return dtos;
+    }
+}
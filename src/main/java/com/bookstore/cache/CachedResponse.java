@@ -0,0 +1,57 @@
+package com.bookstore.cache;
+
+import java.util.Set;
+
+/**
+ * A serialized 200 response with its validators, and a gzip variant when the
+ * body is large enough to be worth compressing.
+ */
+public class CachedResponse {
+    private final String contentType;
+    private final byte[] identity;
+    private final byte[] gzip;
+    private final String eTag;
+    private final long lastModified;
+    private final Set<String> tags;
+
+    public CachedResponse(String contentType, byte[] identity, byte[] gzip, String eTag, long lastModified,
+            Set<String> tags) {
+        this.contentType = contentType;
+        this.identity = identity;
+        this.gzip = gzip;
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        this.tags = tags;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getIdentity() {
+        return identity;
+    }
+
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    /**
+     * @return the Last-Modified time in epoch milliseconds, or -1 if the response had none
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    public int getSize() {
+        return identity.length + (gzip != null ? gzip.length : 0);
+    }
+}
@@ -0,0 +1,32 @@
+package com.bookstore.cache;
+
+import com.bookstore.event.CatalogEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Clears the Hibernate second-level cache after bulk changes. Imports write
+ * through JDBC, which Hibernate does not see; single-row writes go through
+ * Hibernate and keep the cache current on their own.
+ */
+@Component
+public class EntityCacheEvictor {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityCacheEvictor.class);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        if (event.getType() == CatalogEvent.Type.BULK_CHANGE) {
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+            logger.debug("Evicted the second-level cache after a bulk change");
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.bookstore.cache;
+
+import com.bookstore.event.CatalogEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serialized catalog responses keyed by path and query string. Caffeine bounds
+ * the cache by bytes and picks victims with W-TinyLFU. Every entry carries tags
+ * naming the data it was rendered from, and {@link CatalogEvent}s evict exactly
+ * the entries whose tags they touch.
+ * <p>
+ * A removed response is unlinked from its tags on the removing thread. Its key
+ * may have been stored again meanwhile, so the removal then relinks the
+ * current response, and {@link #put} links after storing: whichever runs last
+ * leaves the current response linked.
+ */
+@Component
+public class ResponseCache implements MeterBinder {
+
+    public static final String BOOKS = "books";
+    public static final String AUTHORS = "authors";
+
+    @Value("${response-cache.max-size:64MB}")
+    private DataSize maxSize;
+
+    private Cache<String, CachedResponse> cache;
+
+    private final ConcurrentHashMap<String, Set<String>> keysByTag = new ConcurrentHashMap<>();
+
+    // Bumped by every invalidation, so that responses rendered before a write are not stored after it
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.getSize())
+                .executor(Runnable::run)
+                .removalListener((String key, CachedResponse response, RemovalCause cause) -> {
+                    if (key != null && response != null) {
+                        unlink(key, response.getTags());
+                        CachedResponse current = cache.policy().getIfPresentQuietly(key);
+                        if (current != null) {
+                            link(key, current.getTags());
+                        }
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public static String book(Object bookId) {
+        return "book:" + bookId;
+    }
+
+    public static String author(Object authorId) {
+        return "author:" + authorId;
+    }
+
+    public static String authorBooks(Object authorId) {
+        return "author-books:" + authorId;
+    }
+
+    // Single book responses embed the name of their author
+    public static String authorName(Object authorId) {
+        return "author-name:" + authorId;
+    }
+
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Stores a response rendered after {@code renderedAt} was read from
+     * {@link #generation()}, unless the catalog changed in the meantime.
+     */
+    public void put(String key, CachedResponse response, long renderedAt) {
+        cache.put(key, response);
+        link(key, response.getTags());
+        if (generation.get() != renderedAt) {
+            cache.invalidate(key);
+        }
+    }
+
+    public void invalidate(Set<String> tags) {
+        generation.incrementAndGet();
+        for (String tag : tags) {
+            Set<String> keys = keysByTag.remove(tag);
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+        keysByTag.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        Set<String> tags = new LinkedHashSet<>();
+        switch (event.getType()) {
+            case BOOK_CREATED:
+                tags.add(BOOKS);
+                tags.add(authorBooks(event.getBook().getAuthorId()));
+                break;
+            case BOOK_UPDATED:
+                tags.add(book(event.getId()));
+                tags.add(BOOKS);
+                tags.add(authorBooks(event.getBook().getAuthorId()));
+                tags.add(authorBooks(event.getFormerAuthorId()));
+                break;
+            case BOOK_DELETED:
+                tags.add(book(event.getId()));
+                tags.add(BOOKS);
+                tags.add(authorBooks(event.getFormerAuthorId()));
+                break;
+            case AUTHOR_CREATED:
+                tags.add(AUTHORS);
+                break;
+            case AUTHOR_UPDATED:
+            case AUTHOR_DELETED:
+                tags.add(author(event.getId()));
+                tags.add(AUTHORS);
+                tags.add(authorName(event.getId()));
+                tags.add(authorBooks(event.getId()));
+                tags.add(BOOKS);
+                break;
+            default:
+                invalidateAll();
+                return;
+        }
+        invalidate(tags);
+    }
+
+    private void link(String key, Set<String> tags) {
+        for (String tag : tags) {
+            keysByTag.computeIfAbsent(tag, t -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    private void unlink(String key, Set<String> tags) {
+        for (String tag : tags) {
+            keysByTag.computeIfPresent(tag, (t, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "responses");
+        Gauge.builder("response.cache.bytes", cache,
+                        c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .description("Bytes held by the HTTP response cache")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("response.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of cacheable requests answered from the HTTP response cache")
+                .register(registry);
+    }
+}
@@ -0,0 +1,188 @@
+package com.bookstore.cache;
+
+import com.bookstore.search.SuggestionIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Answers catalog reads from the {@link ResponseCache}, including conditional
+ * ones, and stores the bytes and validators of successful ones. Runs after Spring Security, so every request is still
+ * authenticated; only the controller, the SQL and the JSON rendering are skipped.
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Pattern BOOK = Pattern.compile("/api/books/(\\d+)");
+    private static final Pattern AUTHOR_BOOKS = Pattern.compile("/api/books/author/(\\d+)");
+    private static final Pattern AUTHOR = Pattern.compile("/api/authors/(\\d+)");
+
+    // Smaller bodies fit in a packet or two either way
+    private static final int MIN_GZIP_SIZE = 512;
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Value("${response-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${response-cache.max-entry-size:1MB}")
+    private DataSize maxEntrySize;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"GET".equals(request.getMethod()) || routeTags(path(request)) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = path(request);
+        String key = request.getQueryString() != null ? path + "?" + request.getQueryString() : path;
+        boolean acceptsGzip = acceptsGzip(request);
+
+        CachedResponse cached = responseCache.get(key);
+        if (cached != null) {
+            // Book views rank suggestions, and a hit bypasses BookService.getBookById
+            Matcher book = BOOK.matcher(path);
+            if (book.matches()) {
+                suggestionIndex.recordBookView(Long.valueOf(book.group(1)));
+            }
+            response.setHeader("X-Cache", "HIT");
+            if (!new ServletWebRequest(request, response).checkNotModified(cached.getETag(), cached.getLastModified())) {
+                write(response, cached, acceptsGzip);
+            }
+            return;
+        }
+
+        long generation = responseCache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && !request.isAsyncStarted()
+                && wrapper.getContentSize() <= maxEntrySize.toBytes()) {
+            byte[] body = wrapper.getContentAsByteArray();
+            Set<String> tags = routeTags(path);
+            addAuthorNameTag(path, body, tags);
+            responseCache.put(key, new CachedResponse(wrapper.getContentType(), body,
+                    body.length >= MIN_GZIP_SIZE ? gzip(body) : null, wrapper.getHeader(HttpHeaders.ETAG),
+                    lastModified(wrapper), tags), generation);
+        }
+        wrapper.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        wrapper.setHeader("X-Cache", "MISS");
+        wrapper.copyBodyToResponse();
+    }
+
+    // Tags of the data a cacheable route renders, or null if the route is not cached
+    private static Set<String> routeTags(String path) {
+        Set<String> tags = new HashSet<>();
+        Matcher matcher;
+        if (path.equals("/api/books")) {
+            tags.add(ResponseCache.BOOKS);
+        } else if ((matcher = BOOK.matcher(path)).matches()) {
+            tags.add(ResponseCache.book(matcher.group(1)));
+        } else if ((matcher = AUTHOR_BOOKS.matcher(path)).matches()) {
+            tags.add(ResponseCache.authorBooks(matcher.group(1)));
+        } else if (path.equals("/api/authors")) {
+            tags.add(ResponseCache.AUTHORS);
+        } else if ((matcher = AUTHOR.matcher(path)).matches()) {
+            tags.add(ResponseCache.author(matcher.group(1)));
+        } else {
+            return null;
+        }
+        return tags;
+    }
+
+    private void addAuthorNameTag(String path, byte[] body, Set<String> tags) {
+        if (!BOOK.matcher(path).matches()) {
+            return;
+        }
+        try {
+            JsonNode authorId = objectMapper.readTree(body).get("authorId");
+            if (authorId != null && !authorId.isNull()) {
+                tags.add(ResponseCache.authorName(authorId.asText()));
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot read the author of cached response {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static void write(HttpServletResponse response, CachedResponse cached, boolean acceptsGzip)
+            throws IOException {
+        byte[] body = cached.getIdentity();
+        if (acceptsGzip && cached.getGzip() != null) {
+            body = cached.getGzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.getContentType());
+        response.setContentLength(body.length);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.getOutputStream().write(body);
+    }
+
+    private static long lastModified(HttpServletResponse response) {
+        String lastModified = response.getHeader(HttpHeaders.LAST_MODIFIED);
+        if (lastModified == null) {
+            return -1;
+        }
+        return ZonedDateTime.parse(lastModified, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
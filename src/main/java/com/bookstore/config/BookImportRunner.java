@@ -0,0 +1,63 @@
+package com.bookstore.config;
+
+import com.bookstore.dto.ImportReport;
+import com.bookstore.service.BookImportService;
+import com.bookstore.service.CatalogFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * CLI import mode: {@code ./gradlew bootRun --args='--import.file=books.csv'}
+ * loads the file and shuts the application down again.
+ */
+@Component
+@Order(100)
+@ConditionalOnProperty("import.file")
+public class BookImportRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookImportRunner.class);
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${import.file}")
+    private String file;
+
+    @Value("${import.format:}")
+    private String format;
+
+    @Override
+    public void run(String... args) throws Exception {
+        Path path = Path.of(file);
+        CatalogFormat catalogFormat = format.isEmpty()
+                ? CatalogFormat.fromFileName(path.getFileName().toString())
+                : CatalogFormat.fromParameter(format);
+
+        logger.info("Importing books from {}", path);
+        ImportReport report;
+        try (InputStream in = Files.newInputStream(path)) {
+            report = bookImportService.importBooks(catalogFormat, in);
+        }
+        for (ImportReport.RejectedRow rejection : report.getRejections()) {
+            logger.warn("Rejected line {}: {}", rejection.getLine(), rejection.getMessage());
+        }
+
+        int exitCode = report.getImported() > 0 || report.getRejected() == 0 ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+}
@@ -9,14 +9,17 @@ import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Component
+@Order(1)
 public class DataLoader implements CommandLineRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(DataLoader.class);
@@ -53,7 +56,6 @@ public class DataLoader implements CommandLineRunner {
                 "admin@example.com",
                 passwordEncoder.encode("admin123"));
         admin.setRole(Role.ADMIN);
-        userRepository.save(admin);
 
         // Create regular user
         User user = new User(
@@ -61,7 +63,8 @@ public class DataLoader implements CommandLineRunner {
                 "user@example.com",
                 passwordEncoder.encode("user123"));
         user.setRole(Role.USER);
-        userRepository.save(user);
+
+        userRepository.saveAll(List.of(admin, user));
 
         logger.info("Loaded users: " + userRepository.count());
     }
@@ -73,8 +76,7 @@ public class DataLoader implements CommandLineRunner {
         Author rowling = new Author("J.K. Rowling", "British author known for writing the Harry Potter series");
         Author orwell = new Author("George Orwell", "English novelist, essayist, and critic");
 
-        authorRepository.save(rowling);
-        authorRepository.save(orwell);
+        authorRepository.saveAll(List.of(rowling, orwell));
 
         // Create books for J.K. Rowling
         Book book1 = new Book(
@@ -83,7 +85,6 @@ public class DataLoader implements CommandLineRunner {
                 new BigDecimal("19.99"),
                 "The first novel in the Harry Potter series");
         book1.setAuthor(rowling);
-        bookRepository.save(book1);
 
         Book book2 = new Book(
                 "Harry Potter and the Chamber of Secrets",
@@ -91,7 +92,6 @@ public class DataLoader implements CommandLineRunner {
                 new BigDecimal("21.99"),
                 "The second novel in the Harry Potter series");
         book2.setAuthor(rowling);
-        bookRepository.save(book2);
 
         // Create book for George Orwell
         Book book3 = new Book(
@@ -100,7 +100,8 @@ public class DataLoader implements CommandLineRunner {
                 new BigDecimal("15.99"),
                 "A dystopian novel about totalitarianism");
         book3.setAuthor(orwell);
-        bookRepository.save(book3);
+
+        bookRepository.saveAll(List.of(book1, book2, book3));
 
         logger.info("Loaded authors: " + authorRepository.count());
         logger.info("Loaded books: " + bookRepository.count());
@@ -1,14 +1,21 @@
 package com.bookstore.controller;
 
 import com.bookstore.dto.AuthorDto;
+import com.bookstore.dto.PurgeJob;
+import com.bookstore.dto.ResourceVersion;
+import com.bookstore.dto.Suggestion;
+import com.bookstore.search.SuggestionIndex;
 import com.bookstore.service.AuthorService;
+import com.bookstore.service.PurgeService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -18,15 +25,38 @@ public class AuthorController {
     @Autowired
     private AuthorService authorService;
 
+    @Autowired
+    private PurgeService purgeService;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
     @GetMapping
-    public ResponseEntity<List<AuthorDto>> getAllAuthors() {
+    public ResponseEntity<List<AuthorDto>> getAllAuthors(WebRequest request) {
+        if (ConditionalGet.isConditional(request)
+                && ConditionalGet.notModified(request, authorService.getAuthorsVersion())) {
+            return null;
+        }
         List<AuthorDto> authors = authorService.getAllAuthors();
+        if (ConditionalGet.notModified(request, ResourceVersion.ofAuthors(authors))) {
+            return null;
+        }
         return ResponseEntity.ok(authors);
     }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggestAuthors(@RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(suggestionIndex.suggestAuthors(prefix, limit));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<AuthorDto> getAuthorById(@PathVariable Long id) {
+    public ResponseEntity<AuthorDto> getAuthorById(@PathVariable Long id, WebRequest request) {
+        // Authors come from the second-level cache, which makes the author itself the cheapest version to read
         AuthorDto author = authorService.getAuthorById(id);
+        if (ConditionalGet.notModified(request, ResourceVersion.of(author))) {
+            return null;
+        }
         return ResponseEntity.ok(author);
     }
 
@@ -46,15 +76,28 @@ public class AuthorController {
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> deleteAuthor(@PathVariable Long id) {
+    public ResponseEntity<?> deleteAuthor(@PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            return accepted(purgeService.purgeAuthor(id));
+        }
         authorService.deleteAuthor(id);
         return ResponseEntity.noContent().build();
     }
 
     @DeleteMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> deleteAllAuthors() {
+    public ResponseEntity<?> deleteAllAuthors(@RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            return accepted(purgeService.purgeAllAuthors());
+        }
         authorService.deleteAllAuthors();
         return ResponseEntity.noContent().build();
     }
+
+    private ResponseEntity<PurgeJob> accepted(PurgeJob job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/purges/" + job.getId()))
+                .body(job);
+    }
 }
\ No newline at end of file
@@ -1,15 +1,43 @@
 package com.bookstore.controller;
 
 import com.bookstore.dto.BookDto;
+import com.bookstore.dto.ChangeFeed;
+import com.bookstore.dto.CursorPage;
+import com.bookstore.dto.FacetResult;
+import com.bookstore.dto.ImportReport;
+import com.bookstore.dto.PurgeJob;
+import com.bookstore.dto.ResourceVersion;
+import com.bookstore.dto.Suggestion;
+import com.bookstore.search.FacetFilter;
+import com.bookstore.search.SuggestionIndex;
+import com.bookstore.service.BookExportService;
+import com.bookstore.service.BookImportService;
 import com.bookstore.service.BookService;
+import com.bookstore.service.CatalogFormat;
+import com.bookstore.service.ChangeFeedService;
+import com.bookstore.service.PurgeService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/books")
@@ -18,22 +46,120 @@ public class BookController {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BookExportService bookExportService;
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private PurgeService purgeService;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
     @GetMapping
-    public ResponseEntity<List<BookDto>> getAllBooks() {
-        List<BookDto> books = bookService.getAllBooks();
+    public ResponseEntity<?> getAllBooks(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String sort,
+            WebRequest request) {
+        if (after == null && limit == null && sort == null) {
+            if (ConditionalGet.isConditional(request)
+                    && ConditionalGet.notModified(request, bookService.getBooksVersion())) {
+                return null;
+            }
+            List<BookDto> books = bookService.getAllBooks();
+            if (ConditionalGet.notModified(request, ResourceVersion.ofBooks(books))) {
+                return null;
+            }
+            return ResponseEntity.ok(books);
+        }
+        CursorPage<BookDto> page = bookService.getBooksPage(null, sort, after, limit);
+        return ResponseEntity.ok(withNextLink(page, request));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<BookDto>> searchBooks(@RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        List<BookDto> books = bookService.searchBooks(q, limit);
         return ResponseEntity.ok(books);
     }
 
+    @GetMapping("/facets")
+    public ResponseEntity<FacetResult> facetBooks(@RequestParam(required = false) Set<Long> authorId,
+            @RequestParam(required = false) Set<String> price,
+            @RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to,
+            @RequestParam(required = false) Integer limit) {
+        FacetResult result = bookService.facetBooks(new FacetFilter(authorId, price, from, to), limit);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggestBooks(@RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(suggestionIndex.suggestBooks(prefix, limit));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long authorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince) {
+        CatalogFormat exportFormat = CatalogFormat.fromParameter(format);
+        StreamingResponseBody body = out -> bookExportService.exportBooks(exportFormat, authorId, updatedSince, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .body(body);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<ChangeFeed> getChanges(@RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(changeFeedService.getChanges(since, limit));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<BookDto> getBookById(@PathVariable Long id) {
+    public ResponseEntity<BookDto> getBookById(@PathVariable Long id, WebRequest request) {
+        if (ConditionalGet.isConditional(request)
+                && ConditionalGet.notModified(request, bookService.getBookVersion(id))) {
+            return null;
+        }
         BookDto book = bookService.getBookById(id);
+        if (ConditionalGet.notModified(request, ResourceVersion.of(book))) {
+            return null;
+        }
+        return ResponseEntity.ok(book);
+    }
+
+    @GetMapping("/isbn/{isbn}")
+    public ResponseEntity<BookDto> getBookByIsbn(@PathVariable String isbn) {
+        BookDto book = bookService.getBookByIsbn(isbn);
         return ResponseEntity.ok(book);
     }
 
     @GetMapping("/author/{authorId}")
-    public ResponseEntity<List<BookDto>> getBooksByAuthorId(@PathVariable Long authorId) {
-        List<BookDto> books = bookService.getBooksByAuthorId(authorId);
-        return ResponseEntity.ok(books);
+    public ResponseEntity<?> getBooksByAuthorId(@PathVariable Long authorId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String sort,
+            WebRequest request) {
+        if (after == null && limit == null && sort == null) {
+            if (ConditionalGet.isConditional(request)
+                    && ConditionalGet.notModified(request, bookService.getBooksByAuthorVersion(authorId))) {
+                return null;
+            }
+            List<BookDto> books = bookService.getBooksByAuthorId(authorId);
+            if (ConditionalGet.notModified(request, ResourceVersion.ofBooks(books))) {
+                return null;
+            }
+            return ResponseEntity.ok(books);
+        }
+        CursorPage<BookDto> page = bookService.getBooksPage(authorId, sort, after, limit);
+        return ResponseEntity.ok(withNextLink(page, request));
     }
 
     @PostMapping
@@ -43,6 +169,21 @@ public class BookController {
         return new ResponseEntity<>(createdBook, HttpStatus.CREATED);
     }
 
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportReport> importBooks(@RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream body) throws IOException {
+        CatalogFormat importFormat;
+        if (format != null) {
+            importFormat = CatalogFormat.fromParameter(format);
+        } else {
+            importFormat = contentType != null && contentType.contains("csv") ? CatalogFormat.CSV : CatalogFormat.NDJSON;
+        }
+        ImportReport report = bookImportService.importBooks(importFormat, body);
+        return ResponseEntity.ok(report);
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<BookDto> updateBook(@PathVariable Long id, @Valid @RequestBody BookDto bookDto) {
@@ -59,8 +200,30 @@ public class BookController {
 
     @DeleteMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> deleteAllBooks() {
+    public ResponseEntity<?> deleteAllBooks(@RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            return accepted(purgeService.purgeAllBooks());
+        }
         bookService.deleteAllBooks();
         return ResponseEntity.noContent().build();
     }
+
+    // Relative, so that a page stored in the response cache does not carry the host of the request that rendered it
+    private <T> CursorPage<T> withNextLink(CursorPage<T> page, WebRequest request) {
+        if (page.getNextCursor() != null) {
+            HttpServletRequest servletRequest = ((ServletWebRequest) request).getRequest();
+            page.setNext(UriComponentsBuilder.fromPath(servletRequest.getRequestURI())
+                    .query(servletRequest.getQueryString())
+                    .replaceQueryParam("after", page.getNextCursor())
+                    .replaceQueryParam("limit", page.getLimit())
+                    .toUriString());
+        }
+        return page;
+    }
+
+    private ResponseEntity<PurgeJob> accepted(PurgeJob job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/purges/" + job.getId()))
+                .body(job);
+    }
 }
\ No newline at end of file
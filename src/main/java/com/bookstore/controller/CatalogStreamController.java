@@ -0,0 +1,23 @@
+package com.bookstore.controller;
+
+import com.bookstore.stream.CatalogStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/stream")
+public class CatalogStreamController {
+
+    @Autowired
+    private CatalogStream catalogStream;
+
+    @GetMapping(value = "/catalog", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCatalog(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return catalogStream.subscribe(lastEventId);
+    }
+}
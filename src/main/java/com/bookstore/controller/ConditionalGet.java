@@ -0,0 +1,29 @@
+package com.bookstore.controller;
+
+import com.bookstore.dto.ResourceVersion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Conditional GET support for the catalog controllers. A request carrying
+ * validators is first checked against a version read without loading the
+ * resource; otherwise the validators are taken from the rows as they are loaded.
+ */
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    static boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * Adds the ETag and Last-Modified headers and, when the client's copy is
+     * current, turns the response into a 304; the handler then returns null.
+     */
+    static boolean notModified(WebRequest request, ResourceVersion version) {
+        return request.checkNotModified(version.getETag(), version.getLastModified());
+    }
+}
@@ -0,0 +1,25 @@
+package com.bookstore.controller;
+
+import com.bookstore.dto.PurgeJob;
+import com.bookstore.service.PurgeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/purges")
+public class PurgeController {
+
+    @Autowired
+    private PurgeService purgeService;
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PurgeJob> getPurgeJob(@PathVariable String id) {
+        return ResponseEntity.ok(purgeService.getJob(id));
+    }
+}
@@ -1,16 +1,23 @@
 package com.bookstore.controller;
 
+import java.net.URI;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.bookstore.dto.PurgeJob;
 import com.bookstore.dto.UserDto;
+import com.bookstore.model.Role;
+import com.bookstore.service.PurgeService;
 import com.bookstore.service.UserService;
 
 @RestController
@@ -20,6 +27,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private PurgeService purgeService;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public List<UserDto> getAllUsers() {
@@ -32,6 +42,12 @@ public class UserController {
         return userService.getUserById(id);
     }
 
+    @PutMapping("/{id}/role")
+    @PreAuthorize("hasRole('ADMIN')")
+    public UserDto changeUserRole(@PathVariable Long id, @RequestParam Role role) {
+        return userService.changeRole(id, role);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public void deleteUser(@PathVariable Long id) {
@@ -40,8 +56,17 @@ public class UserController {
 
     @DeleteMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public void deleteAllUsers() {
+    public ResponseEntity<?> deleteAllUsers(@RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            return accepted(purgeService.purgeAllUsers());
+        }
         userService.deleteAllUsers();
+        return ResponseEntity.ok().build();
     }
 
-}
+    private ResponseEntity<PurgeJob> accepted(PurgeJob job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/purges/" + job.getId()))
+                .body(job);
+    }
+}
\ No newline at end of file
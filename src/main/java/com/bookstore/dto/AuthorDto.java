@@ -1,6 +1,8 @@
 package com.bookstore.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotBlank;
+import java.time.LocalDateTime;
 
 public class AuthorDto {
     private Long id;
@@ -10,6 +12,10 @@ public class AuthorDto {
 
     private String biography;
 
+    // Only carried along for ETags, never serialized
+    @JsonIgnore
+    private LocalDateTime updatedDate;
+
     public AuthorDto() {
     }
 
@@ -19,6 +25,12 @@ public class AuthorDto {
         this.biography = biography;
     }
 
+    // Used by the JPQL constructor expressions of the read-only query paths
+    public AuthorDto(Long id, String name, String biography, LocalDateTime updatedDate) {
+        this(id, name, biography);
+        this.updatedDate = updatedDate;
+    }
+
     public Long getId() {
         return id;
     }
@@ -42,4 +54,12 @@ public class AuthorDto {
     public void setBiography(String biography) {
         this.biography = biography;
     }
+
+    public LocalDateTime getUpdatedDate() {
+        return updatedDate;
+    }
+
+    public void setUpdatedDate(LocalDateTime updatedDate) {
+        this.updatedDate = updatedDate;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.bookstore.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the book change feed: the current state of a created or
+ * updated book, or the tombstone of a deleted one.
+ */
+public class BookChange {
+
+    public enum Type {
+        UPSERT,
+        DELETE
+    }
+
+    private Type type;
+    private long sequence;
+    private Long bookId;
+    private Long authorId;
+    private LocalDateTime changedDate;
+    private BookDto book;
+
+    public BookChange() {
+    }
+
+    // Used by the JPQL constructor expressions of the change feed queries
+
+    public BookChange(Long sequence, Long id, String title, String isbn, BigDecimal price, String description,
+            Long authorId, String authorName, LocalDateTime createdDate, LocalDateTime updatedDate) {
+        this.type = Type.UPSERT;
+        this.sequence = sequence;
+        this.bookId = id;
+        this.authorId = authorId;
+        this.changedDate = updatedDate;
+        this.book = new BookDto(id, title, isbn, price, description, authorId, authorName, createdDate);
+    }
+
+    public BookChange(Long sequence, Long bookId, Long authorId, LocalDateTime deletedDate) {
+        this.type = Type.DELETE;
+        this.sequence = sequence;
+        this.bookId = bookId;
+        this.authorId = authorId;
+        this.changedDate = deletedDate;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public Long getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(Long authorId) {
+        this.authorId = authorId;
+    }
+
+    public LocalDateTime getChangedDate() {
+        return changedDate;
+    }
+
+    public void setChangedDate(LocalDateTime changedDate) {
+        this.changedDate = changedDate;
+    }
+
+    public BookDto getBook() {
+        return book;
+    }
+
+    public void setBook(BookDto book) {
+        this.book = book;
+    }
+}
@@ -0,0 +1,56 @@
+package com.bookstore.dto;
+
+import com.bookstore.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last book returned by a paginated listing. It is handed to
+ * clients as an opaque, URL-safe token and decoded again on the next request.
+ */
+public class BookCursor {
+    private static final char SEPARATOR = '|';
+
+    private final BookSort sort;
+    private final Object key;
+    private final Long id;
+
+    public BookCursor(BookSort sort, Object key, Long id) {
+        this.sort = sort;
+        this.key = key;
+        this.id = id;
+    }
+
+    public BookSort getSort() {
+        return sort;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        // The sort key goes last so that titles containing the separator survive the round trip
+        String raw = sort.getProperty() + SEPARATOR + id + SEPARATOR + sort.formatKey(key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3) {
+                throw new InvalidRequestException("Invalid cursor: " + token);
+            }
+            BookSort sort = BookSort.fromProperty(parts[0]);
+            return new BookCursor(sort, sort.parseKey(parts[2]), Long.valueOf(parts[1]));
+        } catch (RuntimeException e) {
+            throw new InvalidRequestException("Invalid cursor: " + token, e);
+        }
+    }
+}
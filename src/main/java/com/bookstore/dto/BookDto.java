@@ -1,9 +1,11 @@
 package com.bookstore.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 public class BookDto {
     private Long id;
@@ -24,6 +26,17 @@ public class BookDto {
 
     private String authorName;
 
+    // Only carried along for cursor pagination, never serialized
+    @JsonIgnore
+    private LocalDateTime createdDate;
+
+    // Only carried along for ETags, never serialized
+    @JsonIgnore
+    private LocalDateTime updatedDate;
+
+    @JsonIgnore
+    private LocalDateTime authorUpdatedDate;
+
     public BookDto() {
     }
 
@@ -38,6 +51,20 @@ public class BookDto {
         this.authorName = authorName;
     }
 
+    // Used by the JPQL constructor expressions of the read-only query paths
+    public BookDto(Long id, String title, String isbn, BigDecimal price,
+            String description, Long authorId, String authorName, LocalDateTime createdDate) {
+        this(id, title, isbn, price, description, authorId, authorName);
+        this.createdDate = createdDate;
+    }
+
+    public BookDto(Long id, String title, String isbn, BigDecimal price, String description, Long authorId,
+            String authorName, LocalDateTime createdDate, LocalDateTime updatedDate, LocalDateTime authorUpdatedDate) {
+        this(id, title, isbn, price, description, authorId, authorName, createdDate);
+        this.updatedDate = updatedDate;
+        this.authorUpdatedDate = authorUpdatedDate;
+    }
+
     public Long getId() {
         return id;
     }
@@ -93,4 +120,28 @@ public class BookDto {
     public void setAuthorName(String authorName) {
         this.authorName = authorName;
     }
+
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(LocalDateTime createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public LocalDateTime getUpdatedDate() {
+        return updatedDate;
+    }
+
+    public void setUpdatedDate(LocalDateTime updatedDate) {
+        this.updatedDate = updatedDate;
+    }
+
+    public LocalDateTime getAuthorUpdatedDate() {
+        return authorUpdatedDate;
+    }
+
+    public void setAuthorUpdatedDate(LocalDateTime authorUpdatedDate) {
+        this.authorUpdatedDate = authorUpdatedDate;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.bookstore.dto;
+
+import com.bookstore.exception.InvalidRequestException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Sort orders supported by the cursor-paginated book listings. Every order is
+ * made unique by using the book id as a tie-breaker.
+ */
+public enum BookSort {
+    ID("id"),
+    TITLE("title"),
+    PRICE("price"),
+    CREATED_DATE("createdDate");
+
+    private final String property;
+
+    BookSort(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static BookSort fromProperty(String property) {
+        for (BookSort sort : values()) {
+            if (sort.property.equalsIgnoreCase(property)) {
+                return sort;
+            }
+        }
+        throw new InvalidRequestException("Unsupported sort property: " + property);
+    }
+
+    public Object keyOf(BookDto book) {
+        switch (this) {
+            case TITLE:
+                return book.getTitle();
+            case PRICE:
+                return book.getPrice();
+            case CREATED_DATE:
+                return book.getCreatedDate();
+            default:
+                return book.getId();
+        }
+    }
+
+    public Object parseKey(String value) {
+        switch (this) {
+            case TITLE:
+                return value;
+            case PRICE:
+                return new BigDecimal(value);
+            case CREATED_DATE:
+                return LocalDateTime.parse(value);
+            default:
+                return Long.valueOf(value);
+        }
+    }
+
+    public String formatKey(Object key) {
+        if (key instanceof BigDecimal) {
+            return ((BigDecimal) key).toPlainString();
+        }
+        return String.valueOf(key);
+    }
+}
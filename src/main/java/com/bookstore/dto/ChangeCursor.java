@@ -0,0 +1,50 @@
+package com.bookstore.dto;
+
+import com.bookstore.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the book change feed: the sequence number and book id of the
+ * last change a client has seen, handed out as an opaque, URL-safe token.
+ */
+public class ChangeCursor {
+    public static final ChangeCursor START = new ChangeCursor(0L, 0L);
+
+    private static final char SEPARATOR = '|';
+
+    private final long sequence;
+    private final long bookId;
+
+    public ChangeCursor(long sequence, long bookId) {
+        this.sequence = sequence;
+        this.bookId = bookId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getBookId() {
+        return bookId;
+    }
+
+    public String encode() {
+        String raw = Long.toString(sequence) + SEPARATOR + bookId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ChangeCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new InvalidRequestException("Invalid cursor: " + token);
+            }
+            return new ChangeCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new InvalidRequestException("Invalid cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.bookstore.dto;
+
+import java.util.List;
+
+/**
+ * A page of the book change feed. {@code cursor} is always set: pass it as
+ * {@code since} to fetch the next page now, or the next changes later.
+ */
+public class ChangeFeed {
+    private List<BookChange> changes;
+    private String cursor;
+    private boolean hasMore;
+
+    public ChangeFeed() {
+    }
+
+    public ChangeFeed(List<BookChange> changes, String cursor, boolean hasMore) {
+        this.changes = changes;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<BookChange> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<BookChange> changes) {
+        this.changes = changes;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,44 @@
+package com.bookstore.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class FacetResult {
+    private long total;
+    private List<BookDto> items;
+    // Facet name (author, price, month) to the count of every value
+    private Map<String, List<FacetCount>> facets;
+
+    public FacetResult() {
+    }
+
+    public FacetResult(long total, List<BookDto> items, Map<String, List<FacetCount>> facets) {
+        this.total = total;
+        this.items = items;
+        this.facets = facets;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public List<BookDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<BookDto> items) {
+        this.items = items;
+    }
+
+    public Map<String, List<FacetCount>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, List<FacetCount>> facets) {
+        this.facets = facets;
+    }
+}
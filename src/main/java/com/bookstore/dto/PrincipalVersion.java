@@ -0,0 +1,33 @@
+package com.bookstore.dto;
+
+import com.bookstore.model.Role;
+
+/**
+ * The parts of a user that a token must still agree with to be accepted:
+ * its role and token version.
+ */
+public class PrincipalVersion {
+    // A user that no longer exists
+    public static final PrincipalVersion DELETED = new PrincipalVersion(null, -1L);
+
+    private final Role role;
+    private final long tokenVersion;
+
+    // Used by the JPQL constructor expression in UserRepository
+    public PrincipalVersion(Role role, Long tokenVersion) {
+        this.role = role;
+        this.tokenVersion = tokenVersion;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public boolean matches(Role role, long tokenVersion) {
+        return this != DELETED && this.role == role && this.tokenVersion == tokenVersion;
+    }
+}
@@ -0,0 +1,95 @@
+package com.bookstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a chunked background delete. Updated by the purge worker and
+ * read concurrently by the status endpoint.
+ */
+public class PurgeJob {
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final String target;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final AtomicLong deleted = new AtomicLong();
+    private volatile long total;
+    private volatile Status status = Status.RUNNING;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    public PurgeJob(String id, String target) {
+        this.id = id;
+        this.target = target;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public long getDeleted() {
+        return deleted.get();
+    }
+
+    public void addDeleted(long count) {
+        deleted.addAndGet(count);
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public int getPercentComplete() {
+        if (status == Status.COMPLETED) {
+            return 100;
+        }
+        return total == 0 ? 0 : (int) Math.min(99, deleted.get() * 100 / total);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void complete() {
+        finishedAt = LocalDateTime.now();
+        status = Status.COMPLETED;
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return status != Status.RUNNING;
+    }
+}
@@ -0,0 +1,105 @@
+package com.bookstore.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Validators for conditional GETs, computed from update timestamps alone so
+ * that an unchanged resource is answered without loading it. A single
+ * resource gets a strong ETag from the timestamps of the rows it is rendered
+ * from; a collection gets a weak ETag from its row count and newest timestamps.
+ */
+public class ResourceVersion {
+    private final String eTag;
+    private final long lastModified;
+
+    // Used by the JPQL constructor expressions of the version queries
+
+    public ResourceVersion(LocalDateTime updatedDate) {
+        this(false, null, updatedDate);
+    }
+
+    public ResourceVersion(LocalDateTime updatedDate, LocalDateTime authorUpdatedDate) {
+        this(false, null, updatedDate, authorUpdatedDate);
+    }
+
+    public ResourceVersion(Long count, LocalDateTime maxUpdatedDate) {
+        this(true, count, maxUpdatedDate);
+    }
+
+    public ResourceVersion(Long count, LocalDateTime maxUpdatedDate, LocalDateTime maxAuthorUpdatedDate) {
+        this(true, count, maxUpdatedDate, maxAuthorUpdatedDate);
+    }
+
+    // The same validators, computed from rows that were loaded anyway
+
+    public static ResourceVersion of(BookDto book) {
+        return new ResourceVersion(book.getUpdatedDate(), book.getAuthorUpdatedDate());
+    }
+
+    public static ResourceVersion of(AuthorDto author) {
+        return new ResourceVersion(author.getUpdatedDate());
+    }
+
+    public static ResourceVersion ofBooks(List<BookDto> books) {
+        LocalDateTime maxUpdatedDate = null;
+        LocalDateTime maxAuthorUpdatedDate = null;
+        for (BookDto book : books) {
+            maxUpdatedDate = max(maxUpdatedDate, book.getUpdatedDate());
+            maxAuthorUpdatedDate = max(maxAuthorUpdatedDate, book.getAuthorUpdatedDate());
+        }
+        return new ResourceVersion((long) books.size(), maxUpdatedDate, maxAuthorUpdatedDate);
+    }
+
+    public static ResourceVersion ofAuthors(List<AuthorDto> authors) {
+        LocalDateTime maxUpdatedDate = null;
+        for (AuthorDto author : authors) {
+            maxUpdatedDate = max(maxUpdatedDate, author.getUpdatedDate());
+        }
+        return new ResourceVersion((long) authors.size(), maxUpdatedDate);
+    }
+
+    private ResourceVersion(boolean weak, Long count, LocalDateTime... timestamps) {
+        StringBuilder tag = new StringBuilder(weak ? "W/\"" : "\"");
+        if (count != null) {
+            tag.append(Long.toString(count, 36));
+        }
+        long newest = -1;
+        for (LocalDateTime timestamp : timestamps) {
+            long micros = toEpochMicros(timestamp);
+            if (tag.charAt(tag.length() - 1) != '"') {
+                tag.append('-');
+            }
+            tag.append(Long.toString(micros, 36));
+            if (timestamp != null) {
+                newest = Math.max(newest, micros / 1000);
+            }
+        }
+        this.eTag = tag.append('"').toString();
+        this.lastModified = newest;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    /**
+     * @return the newest timestamp in epoch milliseconds, or -1 if there is none
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a == null || (b != null && b.isAfter(a)) ? b : a;
+    }
+
+    private static long toEpochMicros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return 0L;
+        }
+        // Timestamps are written in the JVM's zone by @UpdateTimestamp and the JDBC import
+        return timestamp.atZone(ZoneId.systemDefault()).toEpochSecond() * 1_000_000L + timestamp.getNano() / 1000;
+    }
+}
@@ -0,0 +1,30 @@
+package com.bookstore.dto;
+
+public class Suggestion {
+    private Long id;
+    private String text;
+
+    public Suggestion() {
+    }
+
+    public Suggestion(Long id, String text) {
+        this.id = id;
+        this.text = text;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+}
@@ -0,0 +1,99 @@
+package com.bookstore.event;
+
+import com.bookstore.dto.AuthorDto;
+import com.bookstore.dto.BookDto;
+
+import java.util.List;
+
+/**
+ * Published by the services whenever the catalog changes. In-memory views
+ * of the catalog listen for it after the transaction commits.
+ */
+public class CatalogEvent {
+    public enum Type {
+        BOOK_CREATED,
+        BOOK_UPDATED,
+        BOOK_DELETED,
+        AUTHOR_CREATED,
+        AUTHOR_UPDATED,
+        AUTHOR_DELETED,
+        // A chunk of books deleted by a purge, published as each chunk commits
+        BOOKS_DELETED,
+        // Set-based changes (bulk import, delete all, purges) that are not described row by row
+        BULK_CHANGE
+    }
+
+    private final Type type;
+    private final Long id;
+    private final BookDto book;
+    private final AuthorDto author;
+    // Author the book belonged to before an update or delete
+    private final Long formerAuthorId;
+    private final List<Long> bookIds;
+
+    private CatalogEvent(Type type, Long id, BookDto book, AuthorDto author, Long formerAuthorId,
+                         List<Long> bookIds) {
+        this.type = type;
+        this.id = id;
+        this.book = book;
+        this.author = author;
+        this.formerAuthorId = formerAuthorId;
+        this.bookIds = bookIds;
+    }
+
+    public static CatalogEvent bookCreated(BookDto book) {
+        return new CatalogEvent(Type.BOOK_CREATED, book.getId(), book, null, null, null);
+    }
+
+    public static CatalogEvent bookUpdated(BookDto book, Long formerAuthorId) {
+        return new CatalogEvent(Type.BOOK_UPDATED, book.getId(), book, null, formerAuthorId, null);
+    }
+
+    public static CatalogEvent bookDeleted(Long id, Long formerAuthorId) {
+        return new CatalogEvent(Type.BOOK_DELETED, id, null, null, formerAuthorId, null);
+    }
+
+    public static CatalogEvent authorCreated(AuthorDto author) {
+        return new CatalogEvent(Type.AUTHOR_CREATED, author.getId(), null, author, null, null);
+    }
+
+    public static CatalogEvent authorUpdated(AuthorDto author) {
+        return new CatalogEvent(Type.AUTHOR_UPDATED, author.getId(), null, author, null, null);
+    }
+
+    public static CatalogEvent authorDeleted(Long id) {
+        return new CatalogEvent(Type.AUTHOR_DELETED, id, null, null, null, null);
+    }
+
+    public static CatalogEvent booksDeleted(List<Long> bookIds) {
+        return new CatalogEvent(Type.BOOKS_DELETED, null, null, null, null, List.copyOf(bookIds));
+    }
+
+    public static CatalogEvent bulkChange() {
+        return new CatalogEvent(Type.BULK_CHANGE, null, null, null, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public BookDto getBook() {
+        return book;
+    }
+
+    public AuthorDto getAuthor() {
+        return author;
+    }
+
+    public Long getFormerAuthorId() {
+        return formerAuthorId;
+    }
+
+    public List<Long> getBookIds() {
+        return bookIds;
+    }
+}
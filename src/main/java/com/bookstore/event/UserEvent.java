@@ -0,0 +1,26 @@
+package com.bookstore.event;
+
+/**
+ * Published when a user's role or existence changes, so that cached
+ * principals can be dropped after the transaction commits.
+ */
+public class UserEvent {
+    // Null when any number of users changed
+    private final Long userId;
+
+    private UserEvent(Long userId) {
+        this.userId = userId;
+    }
+
+    public static UserEvent changed(Long userId) {
+        return new UserEvent(userId);
+    }
+
+    public static UserEvent allChanged() {
+        return new UserEvent(null);
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,17 @@
+package com.bookstore.exception;
+
+/**
+ * Thrown when a request parameter or body is malformed or out of range, such
+ * as an unknown sort property, a tampered cursor or a non-positive limit,
+ * answered with 400. Other IllegalArgumentExceptions are server errors.
+ */
+public class InvalidRequestException extends IllegalArgumentException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
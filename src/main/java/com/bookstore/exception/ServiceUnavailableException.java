@@ -0,0 +1,20 @@
+package com.bookstore.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request is turned away to protect the service, answered with
+ * 503 and a Retry-After header.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ServiceUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
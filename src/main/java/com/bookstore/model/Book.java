@@ -5,15 +5,28 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_title_id", columnList = "title, id"),
+        @Index(name = "idx_books_price_id", columnList = "price, id"),
+        @Index(name = "idx_books_created_date_id", columnList = "created_date, id"),
+        @Index(name = "idx_books_author_id_id", columnList = "author_id, id"),
+        @Index(name = "idx_books_updated_date", columnList = "updated_date"),
+        @Index(name = "idx_books_change_seq_id", columnList = "change_seq, id")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_books_isbn_key", columnNames = "isbn_key"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.BOOKS)
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = Sequences.BOOKS, allocationSize = Sequences.ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank
@@ -21,13 +34,19 @@ public class Book {
 
     private String isbn;
 
+    // Normalized ISBN-13 digits, null when the ISBN is missing or invalid
+    @Column(name = "isbn_key")
+    private Long isbnKey;
+
     @NotNull
     private BigDecimal price;
 
     private String description;
 
+    // Deleting an author removes its books in the database, without loading them
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "author_id")
+    @JoinColumn(name = "author_id", foreignKey = @ForeignKey(name = "fk_books_author"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Author author;
 
     @CreationTimestamp
@@ -38,12 +57,16 @@ public class Book {
     @Column(name = "updated_date")
     private LocalDateTime updatedDate;
 
+    // Position of the latest change in the change feed
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
     public Book() {
     }
 
     public Book(String title, String isbn, BigDecimal price, String description) {
         this.title = title;
-        this.isbn = isbn;
+        setIsbn(isbn);
         this.price = price;
         this.description = description;
     }
@@ -70,6 +93,11 @@ public class Book {
 
     public void setIsbn(String isbn) {
         this.isbn = isbn;
+        this.isbnKey = Isbn.keyOf(isbn);
+    }
+
+    public Long getIsbnKey() {
+        return isbnKey;
     }
 
     public BigDecimal getPrice() {
@@ -103,4 +131,12 @@ public class Book {
     public LocalDateTime getUpdatedDate() {
         return updatedDate;
     }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.bookstore.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marks a deleted book in the change feed. Tombstones are written with
+ * set-based inserts ahead of the deletes, including the books removed by the
+ * ON DELETE CASCADE of an author.
+ */
+@Entity
+@Table(name = "book_tombstones", indexes = {
+        @Index(name = "idx_book_tombstones_change_seq_book_id", columnList = "change_seq, book_id")
+})
+public class BookTombstone {
+
+    // Book ids are never reused, so a book has at most one tombstone
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "author_id")
+    private Long authorId;
+
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq;
+
+    @Column(name = "deleted_date", nullable = false)
+    private LocalDateTime deletedDate;
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public Long getAuthorId() {
+        return authorId;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public LocalDateTime getDeletedDate() {
+        return deletedDate;
+    }
+}
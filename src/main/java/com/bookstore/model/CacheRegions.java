@@ -0,0 +1,15 @@
+package com.bookstore.model;
+
+/**
+ * Hibernate second-level cache regions. Each region is sized and given an
+ * expiry in {@code hibernate-cache.conf}; a region missing there fails startup.
+ */
+public final class CacheRegions {
+    public static final String AUTHORS = "authors";
+    public static final String BOOKS = "books";
+    public static final String AUTHOR_BOOKS = "author-books";
+    public static final String BOOKS_BY_AUTHOR = "books-by-author";
+
+    private CacheRegions() {
+    }
+}
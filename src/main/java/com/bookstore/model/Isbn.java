@@ -0,0 +1,98 @@
+package com.bookstore.model;
+
+import com.bookstore.exception.InvalidRequestException;
+
+/**
+ * ISBN normalization. ISBN-10 and ISBN-13, with or without hyphens and
+ * spaces, map to the same key: the 13 digits of the ISBN-13 as a long.
+ */
+public final class Isbn {
+
+    private Isbn() {
+    }
+
+    /**
+     * The key of an ISBN, or {@code null} when it is blank or not a valid ISBN.
+     */
+    public static Long keyOf(String isbn) {
+        String digits = strip(isbn);
+        if (digits.length() == 10) {
+            return isbn10Key(digits);
+        }
+        if (digits.length() == 13) {
+            return isbn13Key(digits);
+        }
+        return null;
+    }
+
+    /**
+     * The key of an ISBN that must be valid.
+     *
+     * @throws InvalidRequestException if the ISBN is blank or invalid
+     */
+    public static long parse(String isbn) {
+        Long key = keyOf(isbn);
+        if (key == null) {
+            throw new InvalidRequestException("Invalid ISBN: " + isbn);
+        }
+        return key;
+    }
+
+    private static String strip(String isbn) {
+        if (isbn == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(13);
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c != '-' && c != ' ') {
+                digits.append(Character.toUpperCase(c));
+            }
+        }
+        return digits.toString();
+    }
+
+    private static Long isbn10Key(String digits) {
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = digits.charAt(i);
+            int value;
+            if (c >= '0' && c <= '9') {
+                value = c - '0';
+            } else if (c == 'X' && i == 9) {
+                value = 10;
+            } else {
+                return null;
+            }
+            sum += value * (10 - i);
+        }
+        if (sum % 11 != 0) {
+            return null;
+        }
+        String isbn13 = "978" + digits.substring(0, 9);
+        return Long.parseLong(isbn13) * 10 + isbn13CheckDigit(isbn13);
+    }
+
+    private static Long isbn13Key(String digits) {
+        for (int i = 0; i < 13; i++) {
+            if (digits.charAt(i) < '0' || digits.charAt(i) > '9') {
+                return null;
+            }
+        }
+        if (!digits.startsWith("978") && !digits.startsWith("979")) {
+            return null;
+        }
+        if (isbn13CheckDigit(digits.substring(0, 12)) != digits.charAt(12) - '0') {
+            return null;
+        }
+        return Long.parseLong(digits);
+    }
+
+    private static int isbn13CheckDigit(String first12) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (first12.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,20 @@
+package com.bookstore.model;
+
+/**
+ * Id sequences shared by the JPA mappings and the JDBC bulk paths. Ids are
+ * handed out in blocks of {@link #ALLOCATION_SIZE} using the pooled-lo
+ * optimizer: a sequence value is the first id of its block.
+ */
+public final class Sequences {
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String AUTHORS = "authors_seq";
+    public static final String BOOKS = "books_seq";
+    public static final String USERS = "users_seq";
+
+    // Orders the book change feed; see repository.ChangeSequence
+    public static final String BOOK_CHANGES = "book_changes_seq";
+
+    private Sequences() {
+    }
+}
@@ -16,7 +16,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = Sequences.USERS, allocationSize = Sequences.ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank
@@ -35,6 +36,10 @@ public class User {
     @Enumerated(EnumType.STRING)
     private Role role = Role.USER;
 
+    // Carried in issued tokens; bumping it revokes them. Null for users stored before it existed.
+    @Column(name = "token_version")
+    private Long tokenVersion;
+
     @CreationTimestamp
     @Column(name = "created_date", nullable = false, updatable = false)
     private LocalDateTime createdDate;
@@ -92,6 +97,14 @@ public class User {
         this.role = role;
     }
 
+    public long getTokenVersion() {
+        return tokenVersion != null ? tokenVersion : 0L;
+    }
+
+    public void revokeTokens() {
+        this.tokenVersion = getTokenVersion() + 1;
+    }
+
     public LocalDateTime getCreatedDate() {
         return createdDate;
     }
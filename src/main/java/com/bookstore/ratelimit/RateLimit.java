@@ -0,0 +1,85 @@
+package com.bookstore.ratelimit;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * A configured route and its token bucket arithmetic. A bucket is a single
+ * {@link AtomicLong} holding the time at which it will be full again (the
+ * generic cell rate algorithm), so taking a token is one compare-and-set and
+ * needs no refill thread.
+ */
+final class RateLimit {
+
+    final String name;
+    final int capacity;
+    final long intervalNanos;
+
+    // Advertised in the RateLimit-Policy header, e.g. "10;w=60"
+    final String policy;
+
+    final LongAdder allowed = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+
+    private final Set<String> methods;
+    private final List<PathPattern> paths;
+    private final long windowNanos;
+
+    RateLimit(RateLimitProperties.Route route) {
+        if (route.getCapacity() <= 0 || route.getPeriod() == null || route.getPeriod().isNegative()
+                || route.getPeriod().isZero()) {
+            throw new IllegalArgumentException("Rate limit route " + route.getName()
+                    + " needs a positive capacity and period");
+        }
+        this.name = route.getName();
+        this.capacity = route.getCapacity();
+        this.intervalNanos = Math.max(1, route.getPeriod().toNanos() / capacity);
+        this.windowNanos = intervalNanos * capacity;
+        this.policy = capacity + ";w=" + Math.max(1, route.getPeriod().toSeconds());
+        this.methods = route.getMethods().stream()
+                .map(method -> method.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.paths = route.getPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    boolean matches(String method, PathContainer path) {
+        if (!methods.isEmpty() && !methods.contains(method)) {
+            return false;
+        }
+        for (PathPattern pattern : paths) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes a token from the bucket.
+     *
+     * @return the tokens left, or if there was none, minus the nanoseconds until there is one
+     */
+    long acquire(AtomicLong bucket, long now) {
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + intervalNanos;
+            long wait = next - windowNanos - now;
+            if (wait > 0) {
+                return -wait;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return (windowNanos - (next - now)) / intervalNanos;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.bookstore.ratelimit;
+
+import com.bookstore.security.JwtUtils;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the {@link RateLimiter} before Spring Security, so throttled
+ * requests are turned away before any authentication work. Clients with a
+ * valid token are limited by username, others by remote address; behind a
+ * proxy, set {@code server.forward-headers-strategy} so the address is the
+ * client's. Responses carry the RateLimit-* headers of the route.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final byte[] TOO_MANY_REQUESTS = ("{\"status\":429,\"error\":\"Too Many Requests\","
+            + "\"message\":\"Rate limit exceeded, please retry later\"}").getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimit limit = rateLimiter.match(request.getMethod(),
+                request.getRequestURI().substring(request.getContextPath().length()));
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String client = client(request);
+        long remaining = rateLimiter.acquire(limit, client);
+        response.setHeader("RateLimit-Policy", limit.policy);
+        response.setHeader("RateLimit-Limit", Integer.toString(limit.capacity));
+        if (remaining >= 0) {
+            response.setHeader("RateLimit-Remaining", Long.toString(remaining));
+            // Until the bucket is full again
+            long reset = (limit.capacity - remaining) * limit.intervalNanos;
+            response.setHeader("RateLimit-Reset", Long.toString(seconds(reset)));
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String retryAfter = Long.toString(seconds(-remaining));
+        logger.debug("Rate limit {} exceeded by {}", limit.name, client);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("RateLimit-Remaining", "0");
+        response.setHeader("RateLimit-Reset", retryAfter);
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(TOO_MANY_REQUESTS.length);
+        response.getOutputStream().write(TOO_MANY_REQUESTS);
+    }
+
+    private String client(HttpServletRequest request) {
+        Claims claims = jwtUtils.parseClaims(request);
+        if (claims != null && claims.getSubject() != null) {
+            return "user:" + claims.getSubject();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static long seconds(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,83 @@
+package com.bookstore.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets per route and client, held in a Caffeine cache bounded by
+ * {@code rate-limit.max-keys} that drops clients idle for
+ * {@code rate-limit.idle-timeout}. The first configured route matching a
+ * request applies; requests matching none are not limited.
+ */
+@Component
+public class RateLimiter implements MeterBinder {
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    private List<RateLimit> limits;
+
+    private Cache<String, AtomicLong> buckets;
+
+    @PostConstruct
+    void init() {
+        limits = properties.getRoutes().stream().map(RateLimit::new).toList();
+        buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxKeys())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+    }
+
+    RateLimit match(String method, String path) {
+        if (limits.isEmpty()) {
+            return null;
+        }
+        PathContainer pathContainer = PathContainer.parsePath(path);
+        for (RateLimit limit : limits) {
+            if (limit.matches(method, pathContainer)) {
+                return limit;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the tokens left for the client, or if it has none, minus the nanoseconds until it has one
+     */
+    long acquire(RateLimit limit, String client) {
+        // A new bucket starts full
+        AtomicLong bucket = buckets.get(limit.name + '|' + client, key -> new AtomicLong(System.nanoTime()));
+        long result = limit.acquire(bucket, System.nanoTime());
+        (result >= 0 ? limit.allowed : limit.rejected).increment();
+        return result;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("rate.limit.clients", buckets, Cache::estimatedSize)
+                .description("Clients with a rate limit bucket")
+                .register(registry);
+        for (RateLimit limit : limits) {
+            FunctionCounter.builder("rate.limit.requests", limit.allowed, LongAdder::sum)
+                    .description("Requests checked against a rate limit")
+                    .tags("route", limit.name, "outcome", "allowed")
+                    .register(registry);
+            FunctionCounter.builder("rate.limit.requests", limit.rejected, LongAdder::sum)
+                    .description("Requests checked against a rate limit")
+                    .tags("route", limit.name, "outcome", "rejected")
+                    .register(registry);
+        }
+    }
+}
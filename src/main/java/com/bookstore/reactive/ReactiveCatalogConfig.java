@@ -0,0 +1,48 @@
+package com.bookstore.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ServletHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Serves the reactive read API under {@code /api/reactive}, next to the Spring
+ * MVC controllers on the same port. WebFlux runs inside Tomcat through its
+ * servlet adapter, which uses non-blocking servlet I/O: a response is written
+ * only as fast as the client reads it, and no thread waits meanwhile. The
+ * requests pass through the same servlet filters, so authentication and rate
+ * limiting apply as for the rest of the API.
+ */
+@Configuration
+public class ReactiveCatalogConfig {
+
+    @Bean
+    public ServletRegistrationBean<ServletHttpHandlerAdapter> reactiveCatalogServlet(ReactiveCatalogHandler handler,
+            ObjectMapper objectMapper) {
+        RouterFunction<ServerResponse> routes = RouterFunctions.route()
+                .GET("/books", handler::getAllBooks)
+                .GET("/books/{id:\\d+}", handler::getBookById)
+                .GET("/books/author/{authorId:\\d+}", handler::getBooksByAuthor)
+                .GET("/authors", handler::getAllAuthors)
+                .GET("/authors/{id:\\d+}", handler::getAuthorById)
+                .onError(Exception.class, handler::handleError)
+                .build();
+        // Serialize with the application's ObjectMapper, as the MVC controllers do
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper)))
+                .build();
+
+        ServletRegistrationBean<ServletHttpHandlerAdapter> registration = new ServletRegistrationBean<>(
+                new ServletHttpHandlerAdapter(RouterFunctions.toHttpHandler(routes, strategies)), "/api/reactive/*");
+        registration.setName("reactiveCatalog");
+        registration.setAsyncSupported(true);
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+}
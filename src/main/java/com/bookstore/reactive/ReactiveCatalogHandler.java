@@ -0,0 +1,95 @@
+package com.bookstore.reactive;
+
+import com.bookstore.dto.AuthorDto;
+import com.bookstore.dto.BookDto;
+import com.bookstore.exception.GlobalExceptionHandler.ErrorDetails;
+import com.bookstore.exception.InvalidRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+/**
+ * Handlers of the reactive read API. Listings are written as a JSON array
+ * that is encoded as rows arrive, or as newline-delimited JSON, flushed per
+ * row, for clients that accept {@code application/x-ndjson}.
+ */
+@Component
+public class ReactiveCatalogHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCatalogHandler.class);
+
+    @Autowired
+    private ReactiveCatalogRepository repository;
+
+    public Mono<ServerResponse> getAllBooks(ServerRequest request) {
+        return list(request, repository.findAllBooks(), BookDto.class);
+    }
+
+    public Mono<ServerResponse> getBookById(ServerRequest request) {
+        return pathId(request, "id")
+                .flatMap(id -> single(request, repository.findBookById(id), "Book not found with id: " + id));
+    }
+
+    public Mono<ServerResponse> getBooksByAuthor(ServerRequest request) {
+        return pathId(request, "authorId")
+                .flatMap(authorId -> list(request, repository.findBooksByAuthorId(authorId), BookDto.class));
+    }
+
+    public Mono<ServerResponse> getAllAuthors(ServerRequest request) {
+        return list(request, repository.findAllAuthors(), AuthorDto.class);
+    }
+
+    public Mono<ServerResponse> getAuthorById(ServerRequest request) {
+        return pathId(request, "id")
+                .flatMap(id -> single(request, repository.findAuthorById(id), "Author not found with id: " + id));
+    }
+
+    public Mono<ServerResponse> handleError(Throwable ex, ServerRequest request) {
+        if (ex instanceof InvalidRequestException) {
+            logger.warn("Bad request: {}", ex.getMessage());
+            return error(request, HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        logger.error("Internal server error: {}", ex.getMessage(), ex);
+        return error(request, HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error");
+    }
+
+    // The routes only match digits, but those can still overflow a long. Signalled rather than thrown, so that
+    // the route's error handler answers it
+    private static Mono<Long> pathId(ServerRequest request, String name) {
+        String value = request.pathVariable(name);
+        try {
+            return Mono.just(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return Mono.error(new InvalidRequestException("Invalid " + name + ": " + value));
+        }
+    }
+
+    private static <T> Mono<ServerResponse> list(ServerRequest request, Flux<T> items, Class<T> type) {
+        MediaType contentType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok().contentType(contentType).body(items, type);
+    }
+
+    private static <T> Mono<ServerResponse> single(ServerRequest request, Mono<T> item, String notFound) {
+        return item.flatMap(value -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(value))
+                .switchIfEmpty(Mono.defer(() -> {
+                    logger.error("Entity not found: {}", notFound);
+                    return error(request, HttpStatus.NOT_FOUND, notFound);
+                }));
+    }
+
+    // Same body as GlobalExceptionHandler, which only sees Spring MVC requests
+    private static Mono<ServerResponse> error(ServerRequest request, HttpStatus status, String message) {
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ErrorDetails(new Date(), message, "uri=" + request.requestPath().value()));
+    }
+}
@@ -0,0 +1,179 @@
+package com.bookstore.reactive;
+
+import com.bookstore.dto.AuthorDto;
+import com.bookstore.dto.BookDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Reads books and authors over R2DBC for the reactive API. Listings are read
+ * a page at a time as the subscriber asks for rows, so neither the result nor
+ * a connection is held for a slow reader. The connection pool is kept here
+ * instead of being a bean: a {@code ConnectionFactory} bean would make Spring
+ * Boot back off from the JDBC DataSource that the rest of the application
+ * uses.
+ */
+@Component
+public class ReactiveCatalogRepository implements MeterBinder {
+
+    private static final String BOOK_SELECT = "select b.id, b.title, b.isbn, b.price, b.description, "
+            + "a.id as author_id, a.name as author_name "
+            + "from books b left join authors a on a.id = b.author_id";
+
+    private static final String AUTHOR_SELECT = "select a.id, a.name, a.biography from authors a";
+
+    @Value("${reactive.r2dbc.url}")
+    private String url;
+
+    @Value("${reactive.r2dbc.username:}")
+    private String username;
+
+    @Value("${reactive.r2dbc.password:}")
+    private String password;
+
+    @Value("${reactive.r2dbc.pool.max-size:10}")
+    private int maxPoolSize;
+
+    @Value("${reactive.r2dbc.pool.max-acquire-time:5s}")
+    private Duration maxAcquireTime;
+
+    @Value("${reactive.page-size:256}")
+    private int pageSize;
+
+    private ConnectionPool pool;
+    private DatabaseClient databaseClient;
+
+    @PostConstruct
+    void init() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        // Connections are opened on first use, so startup does not wait for the schema
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive-catalog")
+                .initialSize(0)
+                .maxSize(maxPoolSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+        databaseClient = DatabaseClient.create(pool);
+    }
+
+    public Flux<BookDto> findAllBooks() {
+        return pages(after -> databaseClient.sql(BOOK_SELECT + " where b.id > :after order by b.id limit :limit")
+                .bind("after", after)
+                .bind("limit", pageSize)
+                .map(ReactiveCatalogRepository::toBook)
+                .all(), BookDto::getId);
+    }
+
+    public Mono<BookDto> findBookById(long id) {
+        return databaseClient.sql(BOOK_SELECT + " where b.id = :id")
+                .bind("id", id)
+                .map(ReactiveCatalogRepository::toBook)
+                .one();
+    }
+
+    public Flux<BookDto> findBooksByAuthorId(long authorId) {
+        return pages(after -> databaseClient.sql(BOOK_SELECT
+                        + " where b.author_id = :authorId and b.id > :after order by b.id limit :limit")
+                .bind("authorId", authorId)
+                .bind("after", after)
+                .bind("limit", pageSize)
+                .map(ReactiveCatalogRepository::toBook)
+                .all(), BookDto::getId);
+    }
+
+    public Flux<AuthorDto> findAllAuthors() {
+        return pages(after -> databaseClient.sql(AUTHOR_SELECT + " where a.id > :after order by a.id limit :limit")
+                .bind("after", after)
+                .bind("limit", pageSize)
+                .map(ReactiveCatalogRepository::toAuthor)
+                .all(), AuthorDto::getId);
+    }
+
+    public Mono<AuthorDto> findAuthorById(long id) {
+        return databaseClient.sql(AUTHOR_SELECT + " where a.id = :id")
+                .bind("id", id)
+                .map(ReactiveCatalogRepository::toAuthor)
+                .one();
+    }
+
+    /**
+     * Reads a listing in pages of {@code reactive.page-size} rows, keyed on
+     * the id, each with its own query. A page is fetched once the subscriber
+     * has asked for the rows of the one before, and its connection goes back
+     * to the pool as soon as the rows are read; streaming from one open cursor
+     * would instead hold a connection for as long as the slowest client takes.
+     */
+    private <T> Flux<T> pages(LongFunction<Flux<T>> pageAfter, Function<T, Long> id) {
+        return Flux.defer(() -> {
+            long[] after = {0};
+            boolean[] last = {false};
+            return Mono.defer(() -> pageAfter.apply(after[0]).collectList())
+                    .doOnNext(rows -> {
+                        last[0] = rows.size() < pageSize;
+                        if (!rows.isEmpty()) {
+                            after[0] = id.apply(rows.get(rows.size() - 1));
+                        }
+                    })
+                    // Resubscribes once the page has been taken, so at most one page waits ahead of the client
+                    .repeat(() -> !last[0])
+                    .concatMapIterable(rows -> rows, 1);
+        });
+    }
+
+    private static BookDto toBook(Readable row) {
+        return new BookDto(row.get("id", Long.class), row.get("title", String.class),
+                row.get("isbn", String.class), row.get("price", BigDecimal.class),
+                row.get("description", String.class), row.get("author_id", Long.class),
+                row.get("author_name", String.class));
+    }
+
+    private static AuthorDto toAuthor(Readable row) {
+        return new AuthorDto(row.get("id", Long.class), row.get("name", String.class),
+                row.get("biography", String.class));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Same names as Spring Boot's metrics for pools that are beans
+        gauge(registry, "r2dbc.pool.acquired", "Connections in use", PoolMetrics::acquiredSize);
+        gauge(registry, "r2dbc.pool.idle", "Idle connections", PoolMetrics::idleSize);
+        gauge(registry, "r2dbc.pool.pending", "Subscribers waiting for a connection", PoolMetrics::pendingAcquireSize);
+        gauge(registry, "r2dbc.pool.max.allocated", "Maximum number of connections",
+                PoolMetrics::getMaxAllocatedSize);
+    }
+
+    private void gauge(MeterRegistry registry, String name, String description, ToIntFunction<PoolMetrics> value) {
+        Gauge.builder(name, pool, p -> p.getMetrics().map(value::applyAsInt).orElse(0))
+                .description(description)
+                .tag("name", "reactive-catalog")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.dispose();
+    }
+}
@@ -1,9 +1,34 @@
 package com.bookstore.repository;
 
+import com.bookstore.dto.AuthorDto;
+import com.bookstore.dto.ResourceVersion;
 import com.bookstore.model.Author;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 
 @Repository
 public interface AuthorRepository extends JpaRepository<Author, Long> {
+
+    @Query("select new com.bookstore.dto.AuthorDto(a.id, a.name, a.biography, a.updatedDate) from Author a order by a.id")
+    List<AuthorDto> findAllAuthorDtos();
+
+    @Query("select new com.bookstore.dto.ResourceVersion(count(a), max(a.updatedDate)) from Author a")
+    ResourceVersion findVersionOfAll();
+
+    // The author's books are removed by the ON DELETE CASCADE foreign key. Naming both tables
+    // as query spaces makes Hibernate evict the cached books along with the author.
+    @Modifying
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "authors"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "books")
+    })
+    @Query(value = "delete from authors where id = :id", nativeQuery = true)
+    int deleteAuthorById(@Param("id") Long id);
 }
\ No newline at end of file
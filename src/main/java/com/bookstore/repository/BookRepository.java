@@ -1,11 +1,105 @@
 package com.bookstore.repository;
 
+import com.bookstore.dto.BookChange;
+import com.bookstore.dto.BookDto;
+import com.bookstore.dto.ResourceVersion;
 import com.bookstore.model.Book;
+import com.bookstore.model.CacheRegions;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
-    List<Book> findByAuthorId(Long authorId);
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
+    String BOOK_DTO_SELECT = "select new com.bookstore.dto.BookDto("
+            + "b.id, b.title, b.isbn, b.price, b.description, a.id, a.name, b.createdDate, b.updatedDate, a.updatedDate) "
+            + "from Book b left join b.author a";
+
+    // Every read path fetches the author in the same query so convertToDto never triggers a lazy load
+
+    @Override
+    @EntityGraph(attributePaths = "author")
+    List<Book> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "author")
+    Optional<Book> findById(Long id);
+
+    // Cached: the result is the ids of the books, which are then read from the books region
+    @EntityGraph(attributePaths = "author")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.BOOKS_BY_AUTHOR)
+    })
+    @Query("select b from Book b where b.author.id = :authorId order by b.id")
+    List<Book> findByAuthorId(@Param("authorId") Long authorId);
+
+    // Read-only projections: rows go straight into DTOs without creating managed entities
+
+    @Query(BOOK_DTO_SELECT + " order by b.id")
+    List<BookDto> findAllBookDtos();
+
+    @Query(BOOK_DTO_SELECT + " where b.id = :id")
+    Optional<BookDto> findBookDtoById(@Param("id") Long id);
+
+    @Query(BOOK_DTO_SELECT + " where a.id = :authorId order by b.id")
+    List<BookDto> findBookDtosByAuthorId(@Param("authorId") Long authorId);
+
+    @Query(BOOK_DTO_SELECT + " where b.id in :ids")
+    List<BookDto> findBookDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    // For building in-memory indexes; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(BOOK_DTO_SELECT + " order by b.id")
+    Stream<BookDto> streamAllBookDtos();
+
+    // Validators for conditional GETs; see ResourceVersion
+
+    @Query("select new com.bookstore.dto.ResourceVersion(b.updatedDate, a.updatedDate) "
+            + "from Book b left join b.author a where b.id = :id")
+    Optional<ResourceVersion> findVersionById(@Param("id") Long id);
+
+    @Query("select new com.bookstore.dto.ResourceVersion(count(b), max(b.updatedDate), max(a.updatedDate)) "
+            + "from Book b left join b.author a")
+    ResourceVersion findVersionOfAll();
+
+    @Query("select new com.bookstore.dto.ResourceVersion(count(b), max(b.updatedDate), max(a.updatedDate)) "
+            + "from Book b join b.author a where a.id = :authorId")
+    ResourceVersion findVersionByAuthorId(@Param("authorId") Long authorId);
+
+    // Change feed: books changed after a (changeSeq, id) position, up to the horizon; see ChangeFeedService
+
+    @Query("select new com.bookstore.dto.BookChange(b.changeSeq, b.id, b.title, b.isbn, b.price, b.description, "
+            + "a.id, a.name, b.createdDate, b.updatedDate) from Book b left join b.author a "
+            + "where b.changeSeq >= :sequence and (b.changeSeq > :sequence or b.id > :bookId) "
+            + "and b.changeSeq <= :horizon order by b.changeSeq, b.id")
+    List<BookChange> findChanges(@Param("sequence") long sequence, @Param("bookId") long bookId,
+            @Param("horizon") long horizon, Pageable page);
+
+    // Author names are part of the feed, so renaming an author re-publishes its books
+    @Modifying
+    @Query("update Book b set b.changeSeq = :sequence where b.author.id = :authorId")
+    int updateChangeSeqByAuthorId(@Param("authorId") Long authorId, @Param("sequence") long sequence);
+
+    @Modifying
+    @Query("update Book b set b.changeSeq = :sequence where b.changeSeq is null")
+    int assignMissingChangeSeq(@Param("sequence") long sequence);
+
+    @Query("select b.author.id from Book b where b.id = :id")
+    Optional<Long> findAuthorIdById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Book b where b.id = :id")
+    int deleteBookById(@Param("id") Long id);
 }
\ No newline at end of file
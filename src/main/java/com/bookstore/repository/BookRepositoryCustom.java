@@ -0,0 +1,17 @@
+package com.bookstore.repository;
+
+import com.bookstore.dto.BookCursor;
+import com.bookstore.dto.BookDto;
+import com.bookstore.dto.BookSort;
+
+import java.util.List;
+
+public interface BookRepositoryCustom {
+
+    /**
+     * Keyset pagination: returns up to {@code limit} books ordered by
+     * {@code sort} and id, starting strictly after {@code after} (or from the
+     * beginning when it is null). {@code authorId} is optional.
+     */
+    List<BookDto> findPage(Long authorId, BookSort sort, BookCursor after, int limit);
+}
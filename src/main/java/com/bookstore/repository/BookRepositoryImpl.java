@@ -0,0 +1,55 @@
+package com.bookstore.repository;
+
+import com.bookstore.dto.BookCursor;
+import com.bookstore.dto.BookDto;
+import com.bookstore.dto.BookSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookRepositoryImpl implements BookRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookDto> findPage(Long authorId, BookSort sort, BookCursor after, int limit) {
+        String key = "b." + sort.getProperty();
+        List<String> conditions = new ArrayList<>();
+        if (authorId != null) {
+            conditions.add("a.id = :authorId");
+        }
+        if (after != null) {
+            if (sort == BookSort.ID) {
+                conditions.add("b.id > :afterId");
+            } else {
+                conditions.add("(" + key + " > :afterKey or (" + key + " = :afterKey and b.id > :afterId))");
+            }
+        }
+
+        StringBuilder jpql = new StringBuilder(BookRepository.BOOK_DTO_SELECT);
+        if (!conditions.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", conditions));
+        }
+        jpql.append(" order by ");
+        if (sort != BookSort.ID) {
+            jpql.append(key).append(", ");
+        }
+        jpql.append("b.id");
+
+        TypedQuery<BookDto> query = entityManager.createQuery(jpql.toString(), BookDto.class);
+        if (authorId != null) {
+            query.setParameter("authorId", authorId);
+        }
+        if (after != null) {
+            query.setParameter("afterId", after.getId());
+            if (sort != BookSort.ID) {
+                query.setParameter("afterKey", after.getKey());
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,48 @@
+package com.bookstore.repository;
+
+import com.bookstore.dto.BookChange;
+import com.bookstore.model.BookTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BookTombstoneRepository extends JpaRepository<BookTombstone, Long> {
+    String INSERT_FROM_BOOKS = "insert into BookTombstone (bookId, authorId, changeSeq, deletedDate) "
+            + "select b.id, a.id, :sequence, :deletedDate from Book b left join b.author a";
+
+    // Deleted books after a (changeSeq, bookId) position, up to the horizon; see ChangeFeedService
+    @Query("select new com.bookstore.dto.BookChange(t.changeSeq, t.bookId, t.authorId, t.deletedDate) "
+            + "from BookTombstone t where t.changeSeq >= :sequence and (t.changeSeq > :sequence or t.bookId > :bookId) "
+            + "and t.changeSeq <= :horizon order by t.changeSeq, t.bookId")
+    List<BookChange> findChanges(@Param("sequence") long sequence, @Param("bookId") long bookId,
+            @Param("horizon") long horizon, Pageable page);
+
+    // Set-based inserts, run in the same transaction just before the matching books are deleted
+
+    @Modifying
+    @Query(INSERT_FROM_BOOKS + " where b.id = :id")
+    int insertForBook(@Param("id") Long id, @Param("sequence") long sequence,
+            @Param("deletedDate") LocalDateTime deletedDate);
+
+    @Modifying
+    @Query(INSERT_FROM_BOOKS + " where b.id in :ids")
+    int insertForBooks(@Param("ids") Collection<Long> ids, @Param("sequence") long sequence,
+            @Param("deletedDate") LocalDateTime deletedDate);
+
+    @Modifying
+    @Query(INSERT_FROM_BOOKS + " where a.id = :authorId")
+    int insertForAuthor(@Param("authorId") Long authorId, @Param("sequence") long sequence,
+            @Param("deletedDate") LocalDateTime deletedDate);
+
+    @Modifying
+    @Query(INSERT_FROM_BOOKS)
+    int insertForAll(@Param("sequence") long sequence, @Param("deletedDate") LocalDateTime deletedDate);
+}
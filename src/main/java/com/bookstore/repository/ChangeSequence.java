@@ -0,0 +1,96 @@
+package com.bookstore.repository;
+
+import com.bookstore.model.Sequences;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Numbers book changes for the change feed. Numbers are handed out in
+ * increasing order, but transactions may commit out of order, so the feed
+ * only reads up to the {@link #horizon()}: at or below it no transaction that
+ * drew a number is still running, and every later number will be higher.
+ * This holds for a single application instance, like the in-memory catalog
+ * indexes.
+ */
+@Component
+public class ChangeSequence {
+
+    @Autowired
+    private SequenceIdAllocator idAllocator;
+
+    // Guards the fields below; issuing may query the database, which under synchronized would pin a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final NavigableSet<Long> inFlight = new TreeSet<>();
+
+    private long lastIssued;
+
+    @PostConstruct
+    public void init() {
+        idAllocator.createSequenceIfMissing(Sequences.BOOK_CHANGES);
+    }
+
+    /**
+     * Draws the next number for a change made by the current transaction.
+     */
+    public long next() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Change numbers must be drawn inside a transaction");
+        }
+        long sequence;
+        lock.lock();
+        try {
+            sequence = issue();
+            inFlight.add(sequence);
+        } finally {
+            lock.unlock();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                complete(sequence);
+            }
+        });
+        return sequence;
+    }
+
+    /**
+     * @return the highest number whose changes, and those of every lower number, are committed or rolled back
+     */
+    public long horizon() {
+        lock.lock();
+        try {
+            if (!inFlight.isEmpty()) {
+                return inFlight.first() - 1;
+            }
+            if (lastIssued == 0) {
+                // Nothing drawn since startup: a fresh number is above everything written by earlier runs
+                issue();
+            }
+            return lastIssued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long issue() {
+        lastIssued = idAllocator.nextId(Sequences.BOOK_CHANGES);
+        return lastIssued;
+    }
+
+    private void complete(long sequence) {
+        lock.lock();
+        try {
+            inFlight.remove(sequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
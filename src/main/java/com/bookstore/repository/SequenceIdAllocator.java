@@ -0,0 +1,66 @@
+package com.bookstore.repository;
+
+import com.bookstore.model.Sequences;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out ids for rows written with plain JDBC, using the same sequences
+ * and pooled-lo block size as Hibernate so both paths never collide and one
+ * sequence round trip covers {@link Sequences#ALLOCATION_SIZE} rows.
+ */
+@Component
+public class SequenceIdAllocator {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public long nextId(String sequenceName) {
+        Block block = blocks.computeIfAbsent(sequenceName, name -> new Block());
+        // A lock rather than synchronized, which would pin a virtual thread to its carrier during the query
+        block.lock.lock();
+        try {
+            if (block.next >= block.limit) {
+                block.next = jdbcTemplate.queryForObject(nextValueSql(sequenceName), Long.class);
+                block.limit = block.next + Sequences.ALLOCATION_SIZE;
+            }
+            return block.next++;
+        } finally {
+            block.lock.unlock();
+        }
+    }
+
+    /**
+     * Creates a sequence that no entity id is mapped to, and that schema
+     * generation therefore leaves out. Must run outside a transaction, since
+     * some databases commit on DDL.
+     */
+    public void createSequenceIfMissing(String sequenceName) {
+        jdbcTemplate.execute("create sequence if not exists " + sequenceName
+                + " start with 1 increment by " + Sequences.ALLOCATION_SIZE);
+    }
+
+    private String nextValueSql(String sequenceName) {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        return dialect.getSequenceSupport().getSequenceNextValString(sequenceName);
+    }
+
+    private static class Block {
+        final ReentrantLock lock = new ReentrantLock();
+        long next;
+        long limit;
+    }
+}
@@ -1,8 +1,13 @@
 package com.bookstore.repository;
 
+import com.bookstore.dto.PrincipalVersion;
 import com.bookstore.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
 
 @Repository
@@ -15,4 +20,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Boolean existsByEmail(String email);
 
+    @Query("select new com.bookstore.dto.PrincipalVersion(u.role, coalesce(u.tokenVersion, 0L)) "
+            + "from User u where u.id = :id")
+    Optional<PrincipalVersion> findPrincipalVersionById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :newPassword where u.id = :id and u.password = :oldPassword")
+    int updatePassword(@Param("id") Long id, @Param("oldPassword") String oldPassword,
+            @Param("newPassword") String newPassword);
 }
\ No newline at end of file
@@ -0,0 +1,216 @@
+package com.bookstore.search;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.event.CatalogEvent;
+import com.bookstore.repository.BookRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Full-text index over book title, description, ISBN and author name. Built
+ * from the database at startup and kept current from {@link CatalogEvent}s.
+ * After a bulk change it is rebuilt in the background; until then, searches
+ * are answered from the previous index.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int ISBN_WEIGHT = 1;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final long NO_AUTHOR = -1L;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final IndexRebuilder rebuilder = new IndexRebuilder("search", this::build);
+
+    private InvertedIndex index = new InvertedIndex();
+
+    // Updates that arrive while a rebuild is scanning the database; replayed onto the new index
+    private List<IndexUpdate> pendingUpdates;
+
+    public long[] search(String query, int limit) {
+        List<String> terms = TextAnalyzer.analyze(query);
+        if (terms.isEmpty()) {
+            return new long[0];
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuilder.rebuildNow();
+    }
+
+    private void build() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        InvertedIndex rebuilt = new InvertedIndex();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            try (Stream<BookDto> books = bookRepository.streamAllBookDtos()) {
+                books.forEach(book -> add(rebuilt, book));
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            for (IndexUpdate update : pendingUpdates) {
+                apply(rebuilt, update);
+            }
+            pendingUpdates = null;
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Built search index with {} books and {} terms in {} ms",
+                rebuilt.size(), rebuilt.termCount(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        if (event.getType() == CatalogEvent.Type.BULK_CHANGE) {
+            rebuilder.requestRebuild();
+            return;
+        }
+        IndexUpdate update = new IndexUpdate(event, authorBooks(event));
+        lock.writeLock().lock();
+        try {
+            apply(index, update);
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            }
+            if (index.deletedCount() > Math.max(1000, index.size() / 4)) {
+                index.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The books of an updated author, whose name is part of every book
+     * document of that author. Read before the write lock is taken, so that
+     * searches do not wait on the database.
+     */
+    private List<BookDto> authorBooks(CatalogEvent event) {
+        if (event.getType() != CatalogEvent.Type.AUTHOR_UPDATED) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            if (index.externalIdsInGroup(event.getId()).length == 0) {
+                return List.of();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return bookRepository.findBookDtosByAuthorId(event.getId());
+    }
+
+    private void apply(InvertedIndex target, IndexUpdate update) {
+        CatalogEvent event = update.event;
+        switch (event.getType()) {
+            case BOOK_CREATED:
+            case BOOK_UPDATED:
+                add(target, event.getBook());
+                break;
+            case BOOK_DELETED:
+                target.remove(event.getId());
+                break;
+            case BOOKS_DELETED:
+                event.getBookIds().forEach(target::remove);
+                break;
+            case AUTHOR_UPDATED:
+                for (BookDto book : update.authorBooks) {
+                    add(target, book);
+                }
+                break;
+            case AUTHOR_DELETED:
+                for (long bookId : target.externalIdsInGroup(event.getId())) {
+                    target.remove(bookId);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdown();
+    }
+
+    private static void add(InvertedIndex target, BookDto book) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = addField(frequencies, book.getTitle(), TITLE_WEIGHT)
+                + addField(frequencies, book.getAuthorName(), AUTHOR_WEIGHT)
+                + addField(frequencies, book.getIsbn(), ISBN_WEIGHT)
+                + addField(frequencies, book.getDescription(), DESCRIPTION_WEIGHT);
+        long group = book.getAuthorId() != null ? book.getAuthorId() : NO_AUTHOR;
+        target.add(book.getId(), group, frequencies, length);
+    }
+
+    private static int addField(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> terms = TextAnalyzer.analyze(text);
+        for (String term : terms) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+        return terms.size() * weight;
+    }
+
+    private static class IndexUpdate {
+        final CatalogEvent event;
+        final List<BookDto> authorBooks;
+
+        IndexUpdate(CatalogEvent event, List<BookDto> authorBooks) {
+            this.event = event;
+            this.authorBooks = authorBooks;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.bookstore.search;
+
+/**
+ * Light English stemmer: folds plurals and the -ing/-ed/-ly suffixes so that
+ * "wizards", "running" and "played" match "wizard", "run" and "play". It is
+ * deliberately conservative; both documents and queries go through it, so
+ * only consistency matters, not linguistic accuracy.
+ */
+final class EnglishStemmer {
+
+    private EnglishStemmer() {
+    }
+
+    static String stem(String word) {
+        if (word.length() <= 3 || !isAlphabetic(word)) {
+            return word;
+        }
+        String stem = word;
+
+        if (stem.endsWith("ies") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.endsWith("sses")) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.endsWith("shes") || stem.endsWith("ches") || stem.endsWith("xes") || stem.endsWith("zes")) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us") && !stem.endsWith("is")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+
+        if (stem.endsWith("ing") && stem.length() > 5 && hasVowel(stem, stem.length() - 3)) {
+            stem = undouble(stem.substring(0, stem.length() - 3));
+        } else if (stem.endsWith("ed") && stem.length() > 4 && hasVowel(stem, stem.length() - 2)) {
+            stem = undouble(stem.substring(0, stem.length() - 2));
+        }
+
+        if (stem.endsWith("ly") && stem.length() > 5) {
+            stem = stem.substring(0, stem.length() - 2);
+        }
+        return stem;
+    }
+
+    private static boolean isAlphabetic(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isLetter(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasVowel(String word, int end) {
+        for (int i = 0; i < end; i++) {
+            if ("aeiouy".indexOf(word.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String undouble(String stem) {
+        int length = stem.length();
+        if (length > 2) {
+            char last = stem.charAt(length - 1);
+            if (last == stem.charAt(length - 2) && "aeiouylsz".indexOf(last) < 0) {
+                return stem.substring(0, length - 1);
+            }
+        }
+        return stem;
+    }
+}
@@ -0,0 +1,43 @@
+package com.bookstore.search;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Selected facet values. Values within a facet are alternatives, facets are
+ * combined with AND; an empty selection does not restrict that facet.
+ */
+public class FacetFilter {
+    private final Set<Long> authorIds;
+    private final Set<String> priceBuckets;
+    private final YearMonth fromMonth;
+    private final YearMonth toMonth;
+
+    public FacetFilter(Set<Long> authorIds, Set<String> priceBuckets, YearMonth fromMonth, YearMonth toMonth) {
+        this.authorIds = authorIds != null ? authorIds : Collections.emptySet();
+        this.priceBuckets = priceBuckets != null ? priceBuckets : Collections.emptySet();
+        this.fromMonth = fromMonth;
+        this.toMonth = toMonth;
+    }
+
+    public Set<Long> getAuthorIds() {
+        return authorIds;
+    }
+
+    public Set<String> getPriceBuckets() {
+        return priceBuckets;
+    }
+
+    public YearMonth getFromMonth() {
+        return fromMonth;
+    }
+
+    public YearMonth getToMonth() {
+        return toMonth;
+    }
+
+    public boolean hasMonthRange() {
+        return fromMonth != null || toMonth != null;
+    }
+}
@@ -0,0 +1,491 @@
+package com.bookstore.search;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.dto.FacetCount;
+import com.bookstore.event.CatalogEvent;
+import com.bookstore.exception.InvalidRequestException;
+import com.bookstore.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Facet engine over books: one compressed bitmap of documents per author, price
+ * bucket and creation month. Filtering intersects bitmaps and facet counts are
+ * intersection cardinalities, so neither touches the database.
+ * <p>
+ * Counts for a facet apply the selections of the other facets only, which
+ * keeps the alternatives to the current selection visible. After a bulk
+ * change the index is rebuilt in the background.
+ */
+@Component
+public class FacetIndex {
+
+    public static final String AUTHOR = "author";
+    public static final String PRICE = "price";
+    public static final String MONTH = "month";
+
+    private static final Logger logger = LoggerFactory.getLogger(FacetIndex.class);
+
+    private static final int NONE = -1;
+
+    @Value("${facets.price-buckets:10,20,50,100}")
+    private BigDecimal[] priceBounds;
+
+    @Value("${facets.max-values:50}")
+    private int maxValues;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final IndexRebuilder rebuilder = new IndexRebuilder("facet", this::build);
+
+    private String[] priceBuckets;
+
+    private Bitmaps bitmaps;
+
+    private List<CatalogEvent> pendingEvents;
+
+    /**
+     * Books matching a filter: the total, the first ids in id order and the
+     * facet counts.
+     */
+    public static class Selection {
+        private final long total;
+        private final long[] bookIds;
+        private final Map<String, List<FacetCount>> facets;
+
+        Selection(long total, long[] bookIds, Map<String, List<FacetCount>> facets) {
+            this.total = total;
+            this.bookIds = bookIds;
+            this.facets = facets;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long[] getBookIds() {
+            return bookIds;
+        }
+
+        public Map<String, List<FacetCount>> getFacets() {
+            return facets;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        Arrays.sort(priceBounds);
+        priceBuckets = new String[priceBounds.length + 1];
+        BigDecimal lower = BigDecimal.ZERO;
+        for (int i = 0; i < priceBounds.length; i++) {
+            priceBuckets[i] = lower.toPlainString() + "-" + priceBounds[i].toPlainString();
+            lower = priceBounds[i];
+        }
+        priceBuckets[priceBounds.length] = lower.toPlainString() + "+";
+        bitmaps = new Bitmaps(priceBuckets.length);
+    }
+
+    public Selection select(FacetFilter filter, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap authorMask = authorMask(filter);
+            RoaringBitmap priceMask = priceMask(filter);
+            RoaringBitmap monthMask = monthMask(filter);
+            RoaringBitmap matches = intersect(bitmaps.live, authorMask, priceMask, monthMask);
+
+            long[] bookIds = new long[Math.min(limit, matches.getCardinality())];
+            IntIterator docs = matches.getIntIterator();
+            for (int i = 0; i < bookIds.length; i++) {
+                bookIds[i] = bitmaps.bookIds[docs.next()];
+            }
+
+            Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+            facets.put(AUTHOR, authorCounts(intersect(bitmaps.live, priceMask, monthMask)));
+            facets.put(PRICE, priceCounts(intersect(bitmaps.live, authorMask, monthMask)));
+            facets.put(MONTH, monthCounts(intersect(bitmaps.live, authorMask, priceMask)));
+            return new Selection(matches.getLongCardinality(), bookIds, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap authorMask(FacetFilter filter) {
+        if (filter.getAuthorIds().isEmpty()) {
+            return null;
+        }
+        List<RoaringBitmap> selected = new ArrayList<>();
+        for (Long authorId : filter.getAuthorIds()) {
+            RoaringBitmap docs = bitmaps.byAuthor.get(authorId);
+            if (docs != null) {
+                selected.add(docs);
+            }
+        }
+        return union(selected);
+    }
+
+    private RoaringBitmap priceMask(FacetFilter filter) {
+        if (filter.getPriceBuckets().isEmpty()) {
+            return null;
+        }
+        List<RoaringBitmap> selected = new ArrayList<>();
+        for (String bucket : filter.getPriceBuckets()) {
+            int index = Arrays.asList(priceBuckets).indexOf(bucket);
+            if (index < 0) {
+                throw new InvalidRequestException("Unknown price bucket: " + bucket
+                        + ", expected one of " + Arrays.toString(priceBuckets));
+            }
+            selected.add(bitmaps.byPrice[index]);
+        }
+        return union(selected);
+    }
+
+    private RoaringBitmap monthMask(FacetFilter filter) {
+        if (!filter.hasMonthRange()) {
+            return null;
+        }
+        int from = filter.getFromMonth() != null ? monthKey(filter.getFromMonth()) : Integer.MIN_VALUE;
+        int to = filter.getToMonth() != null ? monthKey(filter.getToMonth()) : Integer.MAX_VALUE;
+        if (from > to) {
+            throw new InvalidRequestException("from must not be after to");
+        }
+        return union(new ArrayList<>(bitmaps.byMonth.subMap(from, true, to, true).values()));
+    }
+
+    // Largest counts first, ties by author id; only the reported authors get a FacetCount
+    private List<FacetCount> authorCounts(RoaringBitmap base) {
+        long[] authorIds = new long[bitmaps.byAuthor.size()];
+        int[] counts = new int[authorIds.length];
+        int size = 0;
+        for (Map.Entry<Long, RoaringBitmap> author : bitmaps.byAuthor.entrySet()) {
+            int count = base == bitmaps.live
+                    ? author.getValue().getCardinality()
+                    : RoaringBitmap.andCardinality(base, author.getValue());
+            if (count > 0) {
+                authorIds[size] = author.getKey();
+                counts[size] = count;
+                size++;
+            }
+        }
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> counts[a] != counts[b]
+                ? Integer.compare(counts[b], counts[a])
+                : Long.compare(authorIds[a], authorIds[b]));
+        List<FacetCount> result = new ArrayList<>(Math.min(size, maxValues));
+        for (int i = 0; i < size && i < maxValues; i++) {
+            long authorId = authorIds[order[i]];
+            result.add(new FacetCount(Long.toString(authorId), bitmaps.authorNames.get(authorId), counts[order[i]]));
+        }
+        return result;
+    }
+
+    private List<FacetCount> priceCounts(RoaringBitmap base) {
+        List<FacetCount> counts = new ArrayList<>();
+        for (int i = 0; i < priceBuckets.length; i++) {
+            int count = RoaringBitmap.andCardinality(base, bitmaps.byPrice[i]);
+            if (count > 0) {
+                counts.add(new FacetCount(priceBuckets[i], priceBuckets[i], count));
+            }
+        }
+        return counts;
+    }
+
+    // Most recent months first
+    private List<FacetCount> monthCounts(RoaringBitmap base) {
+        List<FacetCount> counts = new ArrayList<>();
+        for (Map.Entry<Integer, RoaringBitmap> month : bitmaps.byMonth.descendingMap().entrySet()) {
+            int count = RoaringBitmap.andCardinality(base, month.getValue());
+            if (count > 0) {
+                String value = YearMonth.of(month.getKey() / 12, month.getKey() % 12 + 1).toString();
+                counts.add(new FacetCount(value, value, count));
+                if (counts.size() == maxValues) {
+                    break;
+                }
+            }
+        }
+        return counts;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuilder.rebuildNow();
+    }
+
+    private void build() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingEvents = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Bitmaps rebuilt = new Bitmaps(priceBuckets.length);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            try (Stream<BookDto> books = bookRepository.streamAllBookDtos()) {
+                books.forEach(book -> rebuilt.put(book.getId(), book.getAuthorId(), book.getAuthorName(),
+                        priceBucket(book.getPrice()), monthOf(book.getCreatedDate())));
+            }
+        });
+        rebuilt.optimize();
+
+        lock.writeLock().lock();
+        try {
+            bitmaps = rebuilt;
+            for (CatalogEvent event : pendingEvents) {
+                apply(event);
+            }
+            pendingEvents = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Built facet index with {} books and {} authors in {} ms",
+                rebuilt.live.getCardinality(), rebuilt.byAuthor.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        if (event.getType() == CatalogEvent.Type.BULK_CHANGE) {
+            rebuilder.requestRebuild();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+            apply(event);
+            if (bitmaps.deletedCount() > Math.max(1000, bitmaps.live.getCardinality() / 4)) {
+                bitmaps = bitmaps.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdown();
+    }
+
+    private void apply(CatalogEvent event) {
+        switch (event.getType()) {
+            case BOOK_CREATED:
+            case BOOK_UPDATED:
+                BookDto book = event.getBook();
+                bitmaps.put(book.getId(), book.getAuthorId(), book.getAuthorName(),
+                        priceBucket(book.getPrice()), monthOf(book.getCreatedDate()));
+                break;
+            case BOOK_DELETED:
+                bitmaps.remove(event.getId());
+                break;
+            case BOOKS_DELETED:
+                event.getBookIds().forEach(bitmaps::remove);
+                break;
+            case AUTHOR_UPDATED:
+                if (bitmaps.authorNames.containsKey(event.getId())) {
+                    bitmaps.authorNames.put(event.getId(), event.getAuthor().getName());
+                }
+                break;
+            case AUTHOR_DELETED:
+                RoaringBitmap docs = bitmaps.byAuthor.get(event.getId());
+                if (docs != null) {
+                    for (int doc : docs.toArray()) {
+                        bitmaps.remove(bitmaps.bookIds[doc]);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private int priceBucket(BigDecimal price) {
+        if (price == null) {
+            return NONE;
+        }
+        int bucket = 0;
+        while (bucket < priceBounds.length && price.compareTo(priceBounds[bucket]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static int monthOf(LocalDateTime createdDate) {
+        return createdDate != null ? monthKey(YearMonth.from(createdDate)) : NONE;
+    }
+
+    private static int monthKey(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static RoaringBitmap union(List<RoaringBitmap> bitmaps) {
+        return bitmaps.isEmpty() ? new RoaringBitmap() : FastAggregation.or(bitmaps.iterator());
+    }
+
+    private static RoaringBitmap intersect(RoaringBitmap live, RoaringBitmap... masks) {
+        RoaringBitmap result = live;
+        for (RoaringBitmap mask : masks) {
+            if (mask != null) {
+                result = RoaringBitmap.and(result, mask);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The bitmaps and the per-document facet values needed to move a document
+     * between bitmaps when it changes. Documents are dense ints; a book keeps
+     * its document across updates and deleted documents are reclaimed by
+     * {@link #compact()}.
+     */
+    private static final class Bitmaps {
+        private final RoaringBitmap live = new RoaringBitmap();
+        private final Map<Long, RoaringBitmap> byAuthor = new HashMap<>();
+        private final Map<Long, String> authorNames = new HashMap<>();
+        private final RoaringBitmap[] byPrice;
+        private final TreeMap<Integer, RoaringBitmap> byMonth = new TreeMap<>();
+        private final Map<Long, Integer> docs = new HashMap<>();
+
+        private long[] bookIds = new long[1024];
+        private long[] authorOf = new long[1024];
+        private int[] priceOf = new int[1024];
+        private int[] monthOf = new int[1024];
+        private int nextDoc;
+
+        private Bitmaps(int priceBucketCount) {
+            byPrice = new RoaringBitmap[priceBucketCount];
+            for (int i = 0; i < priceBucketCount; i++) {
+                byPrice[i] = new RoaringBitmap();
+            }
+        }
+
+        private void put(long bookId, Long authorId, String authorName, int priceBucket, int month) {
+            Integer existing = docs.get(bookId);
+            int doc;
+            if (existing != null) {
+                doc = existing;
+                clearValues(doc);
+            } else {
+                doc = nextDoc++;
+                ensureCapacity(doc);
+                docs.put(bookId, doc);
+                bookIds[doc] = bookId;
+                live.add(doc);
+            }
+            authorOf[doc] = authorId != null ? authorId : NONE;
+            priceOf[doc] = priceBucket;
+            monthOf[doc] = month;
+            if (authorId != null) {
+                byAuthor.computeIfAbsent(authorId, id -> new RoaringBitmap()).add(doc);
+                authorNames.put(authorId, authorName);
+            }
+            if (priceBucket != NONE) {
+                byPrice[priceBucket].add(doc);
+            }
+            if (month != NONE) {
+                byMonth.computeIfAbsent(month, key -> new RoaringBitmap()).add(doc);
+            }
+        }
+
+        private void remove(long bookId) {
+            Integer doc = docs.remove(bookId);
+            if (doc != null) {
+                clearValues(doc);
+                live.remove(doc);
+            }
+        }
+
+        private void clearValues(int doc) {
+            if (authorOf[doc] != NONE) {
+                RoaringBitmap authorDocs = byAuthor.get(authorOf[doc]);
+                authorDocs.remove(doc);
+                if (authorDocs.isEmpty()) {
+                    byAuthor.remove(authorOf[doc]);
+                    authorNames.remove(authorOf[doc]);
+                }
+            }
+            if (priceOf[doc] != NONE) {
+                byPrice[priceOf[doc]].remove(doc);
+            }
+            if (monthOf[doc] != NONE) {
+                RoaringBitmap monthDocs = byMonth.get(monthOf[doc]);
+                monthDocs.remove(doc);
+                if (monthDocs.isEmpty()) {
+                    byMonth.remove(monthOf[doc]);
+                }
+            }
+        }
+
+        private int deletedCount() {
+            return nextDoc - live.getCardinality();
+        }
+
+        private Bitmaps compact() {
+            Bitmaps compacted = new Bitmaps(byPrice.length);
+            IntIterator iterator = live.getIntIterator();
+            while (iterator.hasNext()) {
+                int doc = iterator.next();
+                long authorId = authorOf[doc];
+                compacted.put(bookIds[doc], authorId != NONE ? authorId : null, authorNames.get(authorId),
+                        priceOf[doc], monthOf[doc]);
+            }
+            compacted.optimize();
+            return compacted;
+        }
+
+        private void optimize() {
+            live.runOptimize();
+            byAuthor.values().forEach(RoaringBitmap::runOptimize);
+            Arrays.stream(byPrice).forEach(RoaringBitmap::runOptimize);
+            byMonth.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        private void ensureCapacity(int doc) {
+            if (doc < bookIds.length) {
+                return;
+            }
+            int capacity = bookIds.length * 2;
+            bookIds = Arrays.copyOf(bookIds, capacity);
+            authorOf = Arrays.copyOf(authorOf, capacity);
+            priceOf = Arrays.copyOf(priceOf, capacity);
+            monthOf = Arrays.copyOf(monthOf, capacity);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.bookstore.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the rebuilds of one index one at a time. A rebuild reads the whole
+ * catalog from the database, so it is guarded by a lock rather than
+ * synchronized, which would pin a virtual thread to its carrier meanwhile.
+ * Rebuilds after bulk changes run on a background thread, so the writer does
+ * not wait for them; requests that arrive while one is waiting to start are
+ * folded into it.
+ */
+final class IndexRebuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexRebuilder.class);
+
+    private final String name;
+    private final Runnable rebuild;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean queued = new AtomicBoolean();
+    private final ExecutorService executor;
+
+    IndexRebuilder(String name, Runnable rebuild) {
+        this.name = name;
+        this.rebuild = rebuild;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-index-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Rebuilds on the calling thread, once any rebuild in progress is done.
+     */
+    void rebuildNow() {
+        lock.lock();
+        try {
+            rebuild.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Schedules a rebuild on the background thread and returns at once.
+     */
+    void requestRebuild() {
+        if (!queued.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            // Cleared first, so that a change made during this rebuild schedules another
+            queued.set(false);
+            try {
+                rebuildNow();
+            } catch (RuntimeException e) {
+                logger.error("Rebuilding the {} index failed: {}", name, e.getMessage(), e);
+            }
+        });
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
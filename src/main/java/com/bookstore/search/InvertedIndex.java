@@ -0,0 +1,317 @@
+package com.bookstore.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index with BM25 ranking. Documents are identified externally by a
+ * long id (the book id) and carry a group (the author id) so that all
+ * documents of a group can be found again. Internally documents get dense
+ * int ids; posting lists are primitive int arrays in document order.
+ *
+ * <p>Removed documents are only marked deleted and skipped at query time
+ * until {@link #compact()} rewrites the posting lists. Not thread-safe:
+ * callers serialize writes against reads.
+ */
+public class InvertedIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docsByExternalId = new HashMap<>();
+    private final Map<Long, Set<Long>> externalIdsByGroup = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private long[] externalIds = new long[1024];
+    private long[] groups = new long[1024];
+    private int[] lengths = new int[1024];
+    private int maxDoc;
+    private int liveDocs;
+    private long totalLength;
+
+    public void add(long externalId, long group, Map<String, Integer> termFrequencies, int length) {
+        remove(externalId);
+        if (maxDoc == externalIds.length) {
+            int capacity = maxDoc * 2;
+            externalIds = Arrays.copyOf(externalIds, capacity);
+            groups = Arrays.copyOf(groups, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        int doc = maxDoc++;
+        externalIds[doc] = externalId;
+        groups[doc] = group;
+        lengths[doc] = length;
+        docsByExternalId.put(externalId, doc);
+        externalIdsByGroup.computeIfAbsent(group, key -> new HashSet<>()).add(externalId);
+        liveDocs++;
+        totalLength += length;
+
+        for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new PostingList()).add(doc, entry.getValue());
+        }
+    }
+
+    public boolean remove(long externalId) {
+        Integer doc = docsByExternalId.remove(externalId);
+        if (doc == null) {
+            return false;
+        }
+        Set<Long> members = externalIdsByGroup.get(groups[doc]);
+        members.remove(externalId);
+        if (members.isEmpty()) {
+            externalIdsByGroup.remove(groups[doc]);
+        }
+        deleted.set(doc);
+        liveDocs--;
+        totalLength -= lengths[doc];
+        return true;
+    }
+
+    public long[] externalIdsInGroup(long group) {
+        Set<Long> members = externalIdsByGroup.get(group);
+        if (members == null) {
+            return new long[0];
+        }
+        return members.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    public int size() {
+        return liveDocs;
+    }
+
+    public int deletedCount() {
+        return maxDoc - liveDocs;
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * Returns the external ids of the best {@code limit} documents matching
+     * any of the terms, highest BM25 score first.
+     */
+    public long[] search(Collection<String> terms, int limit) {
+        if (liveDocs == 0 || limit <= 0) {
+            return new long[0];
+        }
+        Set<String> uniqueTerms = new LinkedHashSet<>(terms);
+        int candidates = 0;
+        for (String term : uniqueTerms) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                candidates = Math.min(maxDoc, candidates + list.size);
+            }
+        }
+        // Sized by the postings of the query rather than the catalog, and dropped after it
+        ScoreAccumulator accumulator = new ScoreAccumulator(candidates);
+        float averageLength = Math.max(1f, (float) totalLength / liveDocs);
+
+        for (String term : uniqueTerms) {
+            PostingList list = postings.get(term);
+            if (list == null) {
+                continue;
+            }
+            int documentFrequency = Math.min(list.size, liveDocs);
+            float idf = (float) Math.log(1 + (liveDocs - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            for (int i = 0; i < list.size; i++) {
+                int doc = list.docs[i];
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                float tf = list.freqs[i];
+                float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                accumulator.add(doc, idf * tf * (K1 + 1) / (tf + norm));
+            }
+        }
+
+        TopDocs top = new TopDocs(Math.min(limit, accumulator.size));
+        for (int i = 0; i < accumulator.size; i++) {
+            top.offer(accumulator.docs[i], accumulator.scores[i]);
+        }
+        int[] docs = top.sortedDocs();
+        long[] result = new long[docs.length];
+        for (int i = 0; i < docs.length; i++) {
+            result[i] = externalIds[docs[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Drops deleted documents from the posting lists and renumbers the live
+     * ones densely. Document order, and therefore posting order, is kept.
+     */
+    public void compact() {
+        int[] remap = new int[maxDoc];
+        int next = 0;
+        for (int doc = 0; doc < maxDoc; doc++) {
+            if (deleted.get(doc)) {
+                remap[doc] = -1;
+            } else {
+                remap[doc] = next;
+                externalIds[next] = externalIds[doc];
+                groups[next] = groups[doc];
+                lengths[next] = lengths[doc];
+                next++;
+            }
+        }
+
+        Iterator<PostingList> lists = postings.values().iterator();
+        while (lists.hasNext()) {
+            PostingList list = lists.next();
+            int size = 0;
+            for (int i = 0; i < list.size; i++) {
+                int doc = remap[list.docs[i]];
+                if (doc >= 0) {
+                    list.docs[size] = doc;
+                    list.freqs[size] = list.freqs[i];
+                    size++;
+                }
+            }
+            if (size == 0) {
+                lists.remove();
+            } else {
+                list.size = size;
+            }
+        }
+
+        docsByExternalId.clear();
+        for (int doc = 0; doc < next; doc++) {
+            docsByExternalId.put(externalIds[doc], doc);
+        }
+        deleted.clear();
+        maxDoc = next;
+    }
+
+    /**
+     * Scores of the documents a query touches, in an open-addressing hash
+     * table keyed by document, so that memory follows the size of the
+     * postings read rather than the size of the index. Documents are kept
+     * in the order they were first scored.
+     */
+    private static class ScoreAccumulator {
+        // Document + 1 in each slot, 0 for a free slot
+        private final int[] slots;
+        private final int[] entries;
+        private final int mask;
+        final int[] docs;
+        final float[] scores;
+        int size;
+
+        ScoreAccumulator(int maxDocs) {
+            int capacity = Integer.highestOneBit(Math.max(16, maxDocs * 2) - 1) << 1;
+            slots = new int[capacity];
+            entries = new int[capacity];
+            mask = capacity - 1;
+            docs = new int[maxDocs];
+            scores = new float[maxDocs];
+        }
+
+        void add(int doc, float score) {
+            int slot = hash(doc) & mask;
+            while (slots[slot] != 0) {
+                if (slots[slot] == doc + 1) {
+                    scores[entries[slot]] += score;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = doc + 1;
+            entries[slot] = size;
+            docs[size] = doc;
+            scores[size] = score;
+            size++;
+        }
+
+        private static int hash(int doc) {
+            int h = doc * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Bounded min-heap keeping the best scoring documents.
+     */
+    private static class TopDocs {
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        TopDocs(int capacity) {
+            docs = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        void offer(int doc, float score) {
+            if (docs.length == 0) {
+                return;
+            }
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        int[] sortedDocs() {
+            int[] result = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = docs[0];
+                size--;
+                docs[0] = docs[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (scores[parent] <= scores[index]) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && scores[left] < scores[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && scores[right] < scores[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.bookstore.search;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.event.CatalogEvent;
+import com.bookstore.model.Isbn;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ISBN key to book id, held in primitive hash maps so that a scanned ISBN is
+ * resolved without SQL. The database keeps the keys unique; this index
+ * mirrors them and follows {@link CatalogEvent}s after commit. A bulk change
+ * rebuilds it before the change's request returns, so that ISBN lookups and
+ * the duplicate checks of the next import see every imported book.
+ */
+@Component
+public class IsbnIndex {
+
+    public static final long NO_BOOK = 0L;
+
+    private static final Logger logger = LoggerFactory.getLogger(IsbnIndex.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final IndexRebuilder rebuilder = new IndexRebuilder("isbn", this::build);
+
+    private Maps maps = new Maps(0);
+
+    private List<CatalogEvent> pendingEvents;
+
+    /**
+     * @return the id of the book with this ISBN key, or {@link #NO_BOOK}
+     */
+    public long findBookId(long isbnKey) {
+        lock.readLock().lock();
+        try {
+            return maps.bookByIsbn.get(isbnKey, NO_BOOK);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return maps.bookByIsbn.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuilder.rebuildNow();
+    }
+
+    private void build() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingEvents = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        backfillKeys();
+        Integer count = jdbcTemplate.queryForObject("select count(*) from books where isbn_key is not null", Integer.class);
+        Maps rebuilt = new Maps(count != null ? count : 0);
+        jdbcTemplate.query("select id, isbn_key, author_id from books where isbn_key is not null",
+                resultSet -> {
+                    rebuilt.put(resultSet.getLong(1), resultSet.getLong(2), resultSet.getLong(3));
+                });
+
+        lock.writeLock().lock();
+        try {
+            maps = rebuilt;
+            for (CatalogEvent event : pendingEvents) {
+                apply(event);
+            }
+            pendingEvents = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Built ISBN index with {} books in {} ms", rebuilt.bookByIsbn.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    // Books stored before the key column existed get their key on the next startup
+    private void backfillKeys() {
+        List<Map<String, Object>> missing = jdbcTemplate.queryForList(
+                "select id, isbn from books where isbn_key is null and isbn is not null");
+        if (missing.isEmpty()) {
+            return;
+        }
+        List<Object[]> updates = new ArrayList<>();
+        Set<Long> seen = new HashSet<>(jdbcTemplate.queryForList(
+                "select isbn_key from books where isbn_key is not null", Long.class));
+        for (Map<String, Object> row : missing) {
+            long id = ((Number) row.get("id")).longValue();
+            String isbn = (String) row.get("isbn");
+            Long key = Isbn.keyOf(isbn);
+            if (key == null) {
+                logger.warn("Book {} has an invalid ISBN '{}' and cannot be looked up by ISBN", id, isbn);
+            } else if (!seen.add(key)) {
+                logger.warn("Book {} has ISBN '{}' which is already used by another book", id, isbn);
+            } else {
+                updates.add(new Object[] { key, id });
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("update books set isbn_key = ? where id = ?", updates);
+            logger.info("Backfilled ISBN keys of {} books", updates.size());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        if (event.getType() == CatalogEvent.Type.BULK_CHANGE) {
+            rebuild();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdown();
+    }
+
+    private void apply(CatalogEvent event) {
+        switch (event.getType()) {
+            case BOOK_CREATED:
+            case BOOK_UPDATED:
+                BookDto book = event.getBook();
+                maps.remove(book.getId());
+                Long key = Isbn.keyOf(book.getIsbn());
+                if (key != null) {
+                    maps.put(book.getId(), key, book.getAuthorId() != null ? book.getAuthorId() : 0L);
+                }
+                break;
+            case BOOK_DELETED:
+                maps.remove(event.getId());
+                break;
+            case BOOKS_DELETED:
+                event.getBookIds().forEach(maps::remove);
+                break;
+            case AUTHOR_DELETED:
+                // The author's books were removed by the database cascade
+                List<Long> orphaned = new ArrayList<>();
+                maps.authorByBook.forEach((bookId, authorId) -> {
+                    if (authorId == event.getId()) {
+                        orphaned.add(bookId);
+                    }
+                });
+                orphaned.forEach(maps::remove);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static final class Maps {
+        private final LongLongHashMap bookByIsbn;
+        private final LongLongHashMap isbnByBook;
+        private final LongLongHashMap authorByBook;
+
+        private Maps(int expectedSize) {
+            bookByIsbn = new LongLongHashMap(expectedSize);
+            isbnByBook = new LongLongHashMap(expectedSize);
+            authorByBook = new LongLongHashMap(expectedSize);
+        }
+
+        private void put(long bookId, long isbnKey, long authorId) {
+            bookByIsbn.put(isbnKey, bookId, NO_BOOK);
+            isbnByBook.put(bookId, isbnKey, 0L);
+            if (authorId != 0L) {
+                authorByBook.put(bookId, authorId, 0L);
+            }
+        }
+
+        private void remove(long bookId) {
+            long isbnKey = isbnByBook.remove(bookId, 0L);
+            if (isbnKey != 0L && bookByIsbn.get(isbnKey, NO_BOOK) == bookId) {
+                bookByIsbn.remove(isbnKey, NO_BOOK);
+            }
+            authorByBook.remove(bookId, 0L);
+        }
+    }
+}
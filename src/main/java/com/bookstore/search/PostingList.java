@@ -0,0 +1,23 @@
+package com.bookstore.search;
+
+import java.util.Arrays;
+
+/**
+ * Documents containing a term, in increasing document order, with the
+ * (weighted) term frequency of each. Stored as two parallel int arrays.
+ */
+final class PostingList {
+    int[] docs = new int[4];
+    int[] freqs = new int[4];
+    int size;
+
+    void add(int doc, int freq) {
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+            freqs = Arrays.copyOf(freqs, size * 2);
+        }
+        docs[size] = doc;
+        freqs[size] = freq;
+        size++;
+    }
+}
@@ -0,0 +1,372 @@
+package com.bookstore.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefix index for autocomplete. Every entry is reachable from the start of
+ * each of its words, and every node keeps the best {@code topK} entries of
+ * its subtree ordered by score, so a lookup is a walk down the prefix plus a
+ * copy of at most {@code topK} entries. Longer prefixes than {@code maxDepth}
+ * are checked against the entries directly, past the best {@code topK} when
+ * too few of those match.
+ * <p>
+ * Memory is bounded by indexing at most {@code maxDepth} characters from at
+ * most {@link #MAX_WORD_STARTS} word starts per entry. Not thread-safe.
+ */
+public class PrefixTrie {
+
+    static final int MAX_WORD_STARTS = 6;
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private static final Comparator<Entry> BEST_FIRST = Comparator
+            .comparingLong((Entry entry) -> entry.score).reversed()
+            .thenComparing(entry -> entry.key)
+            .thenComparingLong(entry -> entry.id);
+
+    public static final class Entry {
+        private final long id;
+        private final String text;
+        private final String key;
+        private long score;
+
+        private Entry(long id, String text, String key, long score) {
+            this.id = id;
+            this.text = text;
+            this.key = key;
+            this.score = score;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public long getScore() {
+            return score;
+        }
+    }
+
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        // Entries whose indexed key ends exactly here
+        private Entry[] terminals = NO_ENTRIES;
+        private Entry[] top = NO_ENTRIES;
+
+        private Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node addChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            Node node = new Node();
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = label;
+            newChildren[insertAt] = node;
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            labels = newLabels;
+            children = newChildren;
+            return node;
+        }
+
+        private void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        private boolean isEmpty() {
+            return terminals.length == 0 && children.length == 0;
+        }
+    }
+
+    private final int topK;
+    private final int maxDepth;
+    private final Node root = new Node();
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    private boolean bulkLoading;
+
+    public PrefixTrie(int topK, int maxDepth) {
+        this.topK = topK;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Lowercases, folds accents and reduces everything that is not a letter or
+     * digit to single spaces, e.g. "The Philosopher's Stone" becomes
+     * "the philosophers stone".
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = TextAnalyzer.fold(text);
+        StringBuilder normalized = new StringBuilder(folded.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                pendingSpace = false;
+                normalized.append(c);
+            } else if (c != '\'' && c != '\u2019') {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Defers ranking until {@link #finishBulkLoad()} so that loading many
+     * entries ranks every node once instead of once per entry.
+     */
+    public void startBulkLoad() {
+        bulkLoading = true;
+    }
+
+    public void finishBulkLoad() {
+        bulkLoading = false;
+        refreshSubtree(root);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Entry get(long id) {
+        return entries.get(id);
+    }
+
+    /**
+     * Adds an entry or replaces the text and score of an existing one.
+     */
+    public void put(long id, String text, long score) {
+        remove(id);
+        String key = normalize(text);
+        if (key.isEmpty()) {
+            return;
+        }
+        Entry entry = new Entry(id, text, key, score);
+        entries.put(id, entry);
+        for (String indexedKey : indexedKeys(key)) {
+            List<Node> path = walk(indexedKey, true);
+            Node last = path.get(path.size() - 1);
+            last.terminals = append(last.terminals, entry);
+            if (!bulkLoading) {
+                refreshTops(path);
+            }
+        }
+    }
+
+    public void remove(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String indexedKey : indexedKeys(entry.key)) {
+            List<Node> path = walk(indexedKey, false);
+            if (path.size() != indexedKey.length() + 1) {
+                continue;
+            }
+            Node last = path.get(path.size() - 1);
+            last.terminals = without(last.terminals, entry);
+            prune(path, indexedKey);
+            if (!bulkLoading) {
+                refreshTops(path);
+            }
+        }
+    }
+
+    public void updateScore(long id, long score) {
+        Entry entry = entries.get(id);
+        if (entry == null || entry.score == score) {
+            return;
+        }
+        entry.score = score;
+        if (bulkLoading) {
+            return;
+        }
+        for (String indexedKey : indexedKeys(entry.key)) {
+            refreshTops(walk(indexedKey, false));
+        }
+    }
+
+    /**
+     * Best entries whose text has a word starting with {@code prefix}.
+     */
+    public List<Entry> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        List<Entry> result = new ArrayList<>();
+        if (key.isEmpty() || limit <= 0) {
+            return result;
+        }
+        String walked = key.length() > maxDepth ? key.substring(0, maxDepth) : key;
+        Node node = root;
+        for (int i = 0; i < walked.length() && node != null; i++) {
+            node = node.child(walked.charAt(i));
+        }
+        if (node == null) {
+            return result;
+        }
+        boolean truncated = walked.length() < key.length();
+        for (Entry entry : node.top) {
+            // Beyond maxDepth the trie cannot tell candidates apart, so check them directly
+            if (truncated && !hasWordStartingWith(entry.key, key)) {
+                continue;
+            }
+            result.add(entry);
+            if (result.size() == limit) {
+                return result;
+            }
+        }
+        if (!truncated || node.top.length < topK) {
+            return result;
+        }
+        // The node ranks only its best topK, and matches may be among the rest of its subtree
+        Set<Entry> matches = new HashSet<>();
+        collectMatches(node, key, matches);
+        List<Entry> ranked = new ArrayList<>(matches);
+        ranked.sort(BEST_FIRST);
+        return new ArrayList<>(ranked.subList(0, Math.min(limit, ranked.size())));
+    }
+
+    private static void collectMatches(Node node, String prefix, Set<Entry> matches) {
+        for (Entry entry : node.terminals) {
+            if (hasWordStartingWith(entry.key, prefix)) {
+                matches.add(entry);
+            }
+        }
+        for (Node child : node.children) {
+            collectMatches(child, prefix, matches);
+        }
+    }
+
+    private List<String> indexedKeys(String key) {
+        List<String> keys = new ArrayList<>(MAX_WORD_STARTS);
+        for (int start = 0; start < key.length() && keys.size() < MAX_WORD_STARTS; start++) {
+            if (start == 0 || key.charAt(start - 1) == ' ') {
+                String indexedKey = key.substring(start, Math.min(key.length(), start + maxDepth)).trim();
+                if (!keys.contains(indexedKey)) {
+                    keys.add(indexedKey);
+                }
+            }
+        }
+        return keys;
+    }
+
+    private List<Node> walk(String key, boolean create) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            node = create ? node.addChild(key.charAt(i)) : node.child(key.charAt(i));
+            if (node == null) {
+                break;
+            }
+            path.add(node);
+        }
+        return path;
+    }
+
+    private static void prune(List<Node> path, String key) {
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            Node node = path.get(depth);
+            if (!node.isEmpty()) {
+                return;
+            }
+            path.get(depth - 1).removeChild(key.charAt(depth - 1));
+            path.remove(depth);
+        }
+    }
+
+    // The root is never looked up, since an empty prefix has no suggestions
+    private void refreshTops(List<Node> path) {
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            rank(path.get(depth));
+        }
+    }
+
+    private void refreshSubtree(Node node) {
+        for (Node child : node.children) {
+            refreshSubtree(child);
+        }
+        if (node != root) {
+            rank(node);
+        }
+    }
+
+    // A node's best entries are the best of its own terminals and its children's best entries
+    private void rank(Node node) {
+        Set<Entry> candidates = new HashSet<>(Arrays.asList(node.terminals));
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        if (candidates.isEmpty()) {
+            node.top = NO_ENTRIES;
+            return;
+        }
+        List<Entry> ranked = new ArrayList<>(candidates);
+        ranked.sort(BEST_FIRST);
+        node.top = ranked.subList(0, Math.min(topK, ranked.size())).toArray(NO_ENTRIES);
+    }
+
+    private static boolean hasWordStartingWith(String key, String prefix) {
+        int index = key.indexOf(prefix);
+        while (index >= 0) {
+            if (index == 0 || key.charAt(index - 1) == ' ') {
+                return true;
+            }
+            index = key.indexOf(prefix, index + 1);
+        }
+        return false;
+    }
+
+    private static Entry[] append(Entry[] array, Entry entry) {
+        Entry[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = entry;
+        return result;
+    }
+
+    private static Entry[] without(Entry[] array, Entry entry) {
+        int count = 0;
+        Entry[] result = new Entry[array.length];
+        for (Entry candidate : array) {
+            if (candidate != entry) {
+                result[count++] = candidate;
+            }
+        }
+        return count == 0 ? NO_ENTRIES : Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,252 @@
+package com.bookstore.search;
+
+import com.bookstore.dto.AuthorDto;
+import com.bookstore.dto.BookDto;
+import com.bookstore.dto.Suggestion;
+import com.bookstore.event.CatalogEvent;
+import com.bookstore.repository.AuthorRepository;
+import com.bookstore.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Autocomplete over book titles and author names. Authors are ranked by their
+ * number of books, books by how often they have been viewed since startup.
+ * After a bulk change the index is rebuilt in the background.
+ */
+@Component
+public class SuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionIndex.class);
+
+    @Value("${suggest.top-k:10}")
+    private int topK;
+
+    @Value("${suggest.max-prefix-length:20}")
+    private int maxPrefixLength;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final IndexRebuilder rebuilder = new IndexRebuilder("suggestion", this::build);
+
+    private final Map<Long, AtomicLong> bookViews = new ConcurrentHashMap<>();
+
+    private PrefixTrie books;
+    private PrefixTrie authors;
+    // Author of every indexed book, to keep the author book counts current on deletes
+    private Map<Long, Long> bookAuthors;
+
+    private List<CatalogEvent> pendingEvents;
+
+    @PostConstruct
+    void init() {
+        books = new PrefixTrie(topK, maxPrefixLength);
+        authors = new PrefixTrie(topK, maxPrefixLength);
+        bookAuthors = new HashMap<>();
+    }
+
+    public List<Suggestion> suggestBooks(String prefix, Integer limit) {
+        return suggest(books, prefix, limit);
+    }
+
+    public List<Suggestion> suggestAuthors(String prefix, Integer limit) {
+        return suggest(authors, prefix, limit);
+    }
+
+    /**
+     * Counts a view of a book. The ranking is only touched when the count
+     * reaches a power of two, so hot books do not contend on the write lock.
+     */
+    public void recordBookView(Long bookId) {
+        long views = bookViews.computeIfAbsent(bookId, id -> new AtomicLong()).incrementAndGet();
+        if (Long.bitCount(views) != 1) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            books.updateScore(bookId, views);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Suggestion> suggest(PrefixTrie trie, String prefix, Integer limit) {
+        int size = limit != null ? Math.min(Math.max(limit, 1), topK) : topK;
+        List<Suggestion> suggestions = new ArrayList<>(size);
+        lock.readLock().lock();
+        try {
+            for (PrefixTrie.Entry entry : trie.suggest(prefix, size)) {
+                suggestions.add(new Suggestion(entry.getId(), entry.getText()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuilder.rebuildNow();
+    }
+
+    private void build() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingEvents = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        PrefixTrie rebuiltBooks = new PrefixTrie(topK, maxPrefixLength);
+        PrefixTrie rebuiltAuthors = new PrefixTrie(topK, maxPrefixLength);
+        Map<Long, Long> rebuiltBookAuthors = new HashMap<>();
+        Map<Long, Long> bookCounts = new HashMap<>();
+        rebuiltBooks.startBulkLoad();
+        rebuiltAuthors.startBulkLoad();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            try (Stream<BookDto> stream = bookRepository.streamAllBookDtos()) {
+                stream.forEach(book -> {
+                    rebuiltBooks.put(book.getId(), book.getTitle(), views(book.getId()));
+                    if (book.getAuthorId() != null) {
+                        rebuiltBookAuthors.put(book.getId(), book.getAuthorId());
+                        bookCounts.merge(book.getAuthorId(), 1L, Long::sum);
+                    }
+                });
+            }
+            for (AuthorDto author : authorRepository.findAllAuthorDtos()) {
+                rebuiltAuthors.put(author.getId(), author.getName(), bookCounts.getOrDefault(author.getId(), 0L));
+            }
+        });
+        rebuiltBooks.finishBulkLoad();
+        rebuiltAuthors.finishBulkLoad();
+
+        lock.writeLock().lock();
+        try {
+            books = rebuiltBooks;
+            authors = rebuiltAuthors;
+            bookAuthors = rebuiltBookAuthors;
+            for (CatalogEvent event : pendingEvents) {
+                apply(event);
+            }
+            pendingEvents = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Built suggestion index with {} books and {} authors in {} ms",
+                rebuiltBooks.size(), rebuiltAuthors.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        if (event.getType() == CatalogEvent.Type.BULK_CHANGE) {
+            rebuilder.requestRebuild();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdown();
+    }
+
+    private void apply(CatalogEvent event) {
+        switch (event.getType()) {
+            case BOOK_CREATED:
+            case BOOK_UPDATED:
+                BookDto book = event.getBook();
+                books.put(book.getId(), book.getTitle(), views(book.getId()));
+                changeBookCount(bookAuthors.remove(book.getId()), -1);
+                if (book.getAuthorId() != null) {
+                    bookAuthors.put(book.getId(), book.getAuthorId());
+                    changeBookCount(book.getAuthorId(), 1);
+                }
+                break;
+            case BOOK_DELETED:
+                removeBook(event.getId());
+                break;
+            case BOOKS_DELETED:
+                event.getBookIds().forEach(this::removeBook);
+                break;
+            case AUTHOR_CREATED:
+            case AUTHOR_UPDATED:
+                AuthorDto author = event.getAuthor();
+                PrefixTrie.Entry existing = authors.get(author.getId());
+                authors.put(author.getId(), author.getName(), existing != null ? existing.getScore() : 0L);
+                break;
+            case AUTHOR_DELETED:
+                authors.remove(event.getId());
+                List<Long> orphaned = new ArrayList<>();
+                bookAuthors.forEach((bookId, authorId) -> {
+                    if (authorId.equals(event.getId())) {
+                        orphaned.add(bookId);
+                    }
+                });
+                orphaned.forEach(this::removeBook);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void removeBook(Long bookId) {
+        books.remove(bookId);
+        bookViews.remove(bookId);
+        changeBookCount(bookAuthors.remove(bookId), -1);
+    }
+
+    private void changeBookCount(Long authorId, int delta) {
+        if (authorId == null) {
+            return;
+        }
+        PrefixTrie.Entry author = authors.get(authorId);
+        if (author != null) {
+            authors.updateScore(authorId, Math.max(0L, author.getScore() + delta));
+        }
+    }
+
+    // Rounded down to a power of two, matching what recordBookView applies
+    private long views(Long bookId) {
+        AtomicLong views = bookViews.get(bookId);
+        return views != null ? Long.highestOneBit(views.get()) : 0L;
+    }
+}
@@ -0,0 +1,81 @@
+package com.bookstore.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns free text into index terms: accents are folded, text is split on
+ * anything that is not a letter or digit, lowercased, stop words are dropped
+ * and the remaining words are stemmed. Hyphenated ISBNs are kept as one term.
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in",
+            "is", "it", "of", "on", "or", "that", "the", "this", "to", "was", "with");
+
+    private static final Pattern HYPHENATED_ISBN = Pattern.compile("\\b\\d[\\d-]{8,}[\\dXx]\\b");
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String normalized = collapseIsbns(fold(text));
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            char c = i < normalized.length() ? normalized.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                addTerm(terms, normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Lowercases and strips diacritics, e.g. "Bront\u00eb" becomes "bronte".
+     */
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static String collapseIsbns(String text) {
+        if (text.indexOf('-') < 0) {
+            return text;
+        }
+        Matcher matcher = HYPHENATED_ISBN.matcher(text);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            matcher.appendReplacement(result, matcher.group().replace("-", ""));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static void addTerm(List<String> terms, String token) {
+        // Single letters such as initials or the "s" of a possessive carry no meaning on their own
+        if (token.length() == 1 && !Character.isDigit(token.charAt(0))) {
+            return;
+        }
+        if (STOP_WORDS.contains(token)) {
+            return;
+        }
+        terms.add(EnglishStemmer.stem(token));
+    }
+}
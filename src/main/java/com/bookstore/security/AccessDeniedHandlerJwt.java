@@ -0,0 +1,46 @@
+package com.bookstore.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.web.access.AccessDeniedHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+
+@Component
+public class AccessDeniedHandlerJwt implements AccessDeniedHandler {
+    private static final Logger logger = LoggerFactory.getLogger(AccessDeniedHandlerJwt.class);
+
+    private static final byte[] FORBIDDEN = ErrorResponses.prefix(HttpServletResponse.SC_FORBIDDEN, "Forbidden",
+            "You do not have permission to access this resource");
+
+    @Value("${jwt.rejection-log-interval:10s}")
+    private Duration logInterval;
+
+    private LogSampler logSampler;
+
+    @PostConstruct
+    void init() {
+        logSampler = new LogSampler(logInterval);
+    }
+
+    @Override
+    public void handle(HttpServletRequest request, HttpServletResponse response,
+            AccessDeniedException accessDeniedException)
+            throws IOException, ServletException {
+        long suppressed = logSampler.sample();
+        if (suppressed >= 0) {
+            logger.warn("Access denied: {} ({} more since the last report)", accessDeniedException.getMessage(),
+                    suppressed);
+        }
+
+        ErrorResponses.write(response, HttpServletResponse.SC_FORBIDDEN, FORBIDDEN, request.getServletPath());
+    }
+}
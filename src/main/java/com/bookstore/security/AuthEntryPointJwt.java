@@ -1,40 +1,54 @@
 package com.bookstore.security;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.MediaType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
 
 @Component
 public class AuthEntryPointJwt implements AuthenticationEntryPoint {
     private static final Logger logger = LoggerFactory.getLogger(AuthEntryPointJwt.class);
 
+    // What Spring Security reports for requests without a valid token, by far the most common case
+    private static final String AUTHENTICATION_REQUIRED_MESSAGE =
+            "Full authentication is required to access this resource";
+
+    private static final byte[] AUTHENTICATION_REQUIRED = ErrorResponses.prefix(HttpServletResponse.SC_UNAUTHORIZED,
+            "Unauthorized", AUTHENTICATION_REQUIRED_MESSAGE);
+
+    @Value("${jwt.rejection-log-interval:10s}")
+    private Duration logInterval;
+
+    private LogSampler logSampler;
+
+    @PostConstruct
+    void init() {
+        logSampler = new LogSampler(logInterval);
+    }
+
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response,
             AuthenticationException authException)
             throws IOException, ServletException {
-        logger.error("Unauthorized error: {}", authException.getMessage());
-
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-
-        final Map<String, Object> body = new HashMap<>();
-        body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
-        body.put("error", "Unauthorized");
-        body.put("message", authException.getMessage());
-        body.put("path", request.getServletPath());
+        long suppressed = logSampler.sample();
+        if (suppressed >= 0) {
+            logger.warn("Unauthorized error: {} ({} more since the last report)", authException.getMessage(),
+                    suppressed);
+        }
 
-        final ObjectMapper mapper = new ObjectMapper();
-        mapper.writeValue(response.getOutputStream(), body);
+        String message = authException.getMessage();
+        byte[] prefix = AUTHENTICATION_REQUIRED_MESSAGE.equals(message)
+                ? AUTHENTICATION_REQUIRED
+                : ErrorResponses.prefix(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized", message);
+        ErrorResponses.write(response, HttpServletResponse.SC_UNAUTHORIZED, prefix, request.getServletPath());
     }
 }
\ No newline at end of file
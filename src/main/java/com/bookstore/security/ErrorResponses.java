@@ -0,0 +1,44 @@
+package com.bookstore.security;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the JSON bodies of the 401 and 403 responses sent by the security
+ * filter chain. Everything but the request path is rendered once, so turning
+ * a request away costs no serialization.
+ */
+final class ErrorResponses {
+
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private ErrorResponses() {
+    }
+
+    /**
+     * Renders the body up to the value of its {@code path} field.
+     */
+    static byte[] prefix(int status, String error, String message) {
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        return ("{\"status\":" + status
+                + ",\"error\":\"" + new String(encoder.quoteAsString(error))
+                + "\",\"message\":\"" + new String(encoder.quoteAsString(String.valueOf(message)))
+                + "\",\"path\":\"").getBytes(StandardCharsets.UTF_8);
+    }
+
+    static void write(HttpServletResponse response, int status, byte[] prefix, String path) throws IOException {
+        byte[] quotedPath = JsonStringEncoder.getInstance().quoteAsUTF8(path);
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(prefix.length + quotedPath.length + SUFFIX.length);
+        ServletOutputStream out = response.getOutputStream();
+        out.write(prefix);
+        out.write(quotedPath);
+        out.write(SUFFIX);
+    }
+}
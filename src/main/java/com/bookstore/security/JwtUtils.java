@@ -1,30 +1,128 @@
 package com.bookstore.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
-public class JwtUtils {
+public class JwtUtils implements MeterBinder {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    // Let the filter build the principal from the token alone; see PrincipalCache
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
+    // Far longer than any token issued here; longer ones are rejected unread
+    private static final int MAX_TOKEN_LENGTH = 4096;
+
+    private enum Rejection {
+        MALFORMED, SIGNATURE, EXPIRED, UNSUPPORTED, EMPTY
+    }
+
+    private static final String CLAIMS_ATTRIBUTE = JwtUtils.class.getName() + ".claims";
+
+    // Recorded on requests without a valid token, so they are not verified again
+    private static final Object NO_CLAIMS = new Object();
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
-    private Key getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheSize;
+
+    @Value("${jwt.rejection-log-interval:10s}")
+    private Duration rejectionLogInterval;
+
+    // Both are immutable and thread-safe, so they are built once
+    private Key signingKey;
+    private JwtParser parser;
+
+    // The header and the signature length of the tokens issued here; a token
+    // with another header or signature length cannot verify, so it is
+    // rejected before any decoding or cryptography
+    private String expectedHeader;
+    private int expectedSignatureLength;
+
+    private final Map<Rejection, LongAdder> rejections = new EnumMap<>(Rejection.class);
+    private LogSampler rejectionLog;
+
+    // Claims of recently verified tokens, keyed by the SHA-256 of the token and dropped when it expires
+    private Cache<ByteBuffer, Claims> verified;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        String sample = Jwts.builder().setSubject("").signWith(signingKey, SignatureAlgorithm.HS256).compact();
+        expectedHeader = sample.substring(0, sample.indexOf('.') + 1);
+        expectedSignatureLength = sample.length() - sample.lastIndexOf('.') - 1;
+        for (Rejection rejection : Rejection.values()) {
+            rejections.put(rejection, new LongAdder());
+        }
+        rejectionLog = new LogSampler(rejectionLogInterval);
+        if (verifiedCacheSize > 0) {
+            verified = Caffeine.newBuilder()
+                    .maximumSize(verifiedCacheSize)
+                    .expireAfter(new Expiry<ByteBuffer, Claims>() {
+                        @Override
+                        public long expireAfterCreate(ByteBuffer digest, Claims claims, long currentTime) {
+                            long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                        }
+
+                        @Override
+                        public long expireAfterUpdate(ByteBuffer digest, Claims claims, long currentTime,
+                                long currentDuration) {
+                            return currentDuration;
+                        }
+
+                        @Override
+                        public long expireAfterRead(ByteBuffer digest, Claims claims, long currentTime,
+                                long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .build();
+        }
     }
 
     public String generateJwtToken(Authentication authentication) {
@@ -32,37 +130,130 @@ public class JwtUtils {
 
         return Jwts.builder()
                 .setSubject((userPrincipal.getUsername()))
+                .claim(CLAIM_USER_ID, userPrincipal.getId())
+                .claim(CLAIM_ROLE, userPrincipal.getRole().name())
+                .claim(CLAIM_TOKEN_VERSION, userPrincipal.getTokenVersion())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    /**
+     * Returns the claims of the request's bearer token, or null if it has none
+     * or it is invalid. The result is kept on the request, so the filters that
+     * need it verify the token once between them.
+     */
+    public Claims parseClaims(HttpServletRequest request) {
+        Object cached = request.getAttribute(CLAIMS_ATTRIBUTE);
+        if (cached != null) {
+            return cached instanceof Claims claims ? claims : null;
+        }
+        String token = parseJwt(request);
+        Claims claims = token != null ? parseClaims(token) : null;
+        request.setAttribute(CLAIMS_ATTRIBUTE, claims != null ? claims : NO_CLAIMS);
+        return claims;
     }
 
-    public boolean validateJwtToken(String authToken) {
+    private static String parseJwt(HttpServletRequest request) {
+        String headerAuth = request.getHeader("Authorization");
+
+        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
+            return headerAuth.substring(7);
+        }
+
+        return null;
+    }
+
+    /**
+     * Verifies the token and returns its claims in a single pass, or null if
+     * the token is invalid or expired. A token seen recently is answered from
+     * the verified-token cache without decoding it again.
+     */
+    public Claims parseClaims(String token) {
+        if (!isWellFormed(token)) {
+            reject(Rejection.MALFORMED, "not a token issued here");
+            return null;
+        }
+        if (verified == null) {
+            return verify(token);
+        }
+        ByteBuffer digest = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+        Claims claims = verified.getIfPresent(digest);
+        if (claims != null) {
+            return claims;
+        }
+        claims = verify(token);
+        if (claims != null && claims.getExpiration() != null) {
+            verified.put(digest, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * Checks, in a single scan and without allocating, that the token has the
+     * header of the tokens issued here, a payload, and a signature of the
+     * right length, all in base64url.
+     */
+    boolean isWellFormed(String token) {
+        int length = token.length();
+        if (length > MAX_TOKEN_LENGTH || !token.startsWith(expectedHeader)) {
+            return false;
+        }
+        int payloadStart = expectedHeader.length();
+        int signatureStart = -1;
+        for (int i = payloadStart; i < length; i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (signatureStart >= 0) {
+                    return false;
+                }
+                signatureStart = i + 1;
+            } else if (!isBase64Url(c)) {
+                return false;
+            }
+        }
+        return signatureStart > payloadStart + 1 && length - signatureStart == expectedSignatureLength;
+    }
+
+    private static boolean isBase64Url(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+    }
+
+    private Claims verify(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken);
-            return true;
+            return parser.parseClaimsJws(token).getBody();
         } catch (SecurityException e) {
-            logger.error("Invalid JWT signature: {}", e.getMessage());
+            reject(Rejection.SIGNATURE, e.getMessage());
         } catch (MalformedJwtException e) {
-            logger.error("Invalid JWT token: {}", e.getMessage());
+            reject(Rejection.MALFORMED, e.getMessage());
         } catch (ExpiredJwtException e) {
-            logger.error("JWT token is expired: {}", e.getMessage());
+            reject(Rejection.EXPIRED, e.getMessage());
         } catch (UnsupportedJwtException e) {
-            logger.error("JWT token is unsupported: {}", e.getMessage());
+            reject(Rejection.UNSUPPORTED, e.getMessage());
         } catch (IllegalArgumentException e) {
-            logger.error("JWT claims string is empty: {}", e.getMessage());
+            reject(Rejection.EMPTY, e.getMessage());
+        }
+
+        return null;
+    }
+
+    // Bad tokens are the client's problem and may come in floods, so they are counted and the log is sampled
+    private void reject(Rejection rejection, String message) {
+        rejections.get(rejection).increment();
+        long suppressed = rejectionLog.sample();
+        if (suppressed >= 0) {
+            logger.warn("Rejected JWT ({}): {} ({} more since the last report)", rejection, message, suppressed);
         }
+    }
 
-        return false;
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Map.Entry<Rejection, LongAdder> rejection : rejections.entrySet()) {
+            FunctionCounter.builder("auth.token.rejected", rejection.getValue(), LongAdder::sum)
+                    .description("Bearer tokens that failed verification")
+                    .tags("reason", rejection.getKey().name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
     }
-}
\ No newline at end of file
+}
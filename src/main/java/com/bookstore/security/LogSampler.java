@@ -0,0 +1,34 @@
+package com.bookstore.security;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lets a log message through at most once per interval and counts the ones
+ * held back, so that a flood of bad requests cannot flood the log.
+ */
+final class LogSampler {
+
+    private final long intervalNanos;
+    private final AtomicLong nextAt;
+    private final LongAdder suppressed = new LongAdder();
+
+    LogSampler(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+        this.nextAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * @return the number of messages held back since the last one let through, or -1 to hold this one back
+     */
+    long sample() {
+        long now = System.nanoTime();
+        long next = nextAt.get();
+        if (now - next < 0 || !nextAt.compareAndSet(next, now + intervalNanos)) {
+            suppressed.increment();
+            return -1;
+        }
+        return suppressed.sumThenReset();
+    }
+}
@@ -0,0 +1,127 @@
+package com.bookstore.security;
+
+import com.bookstore.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt off the request threads, on {@code auth.hashing.threads}
+ * threads with a queue of {@code auth.hashing.queue-capacity} tasks. When
+ * the queue is full, new sign-ins and sign-ups are turned away with a 503
+ * instead of waiting, so a burst of logins cannot take the servlet threads
+ * that serve the catalog.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.bcrypt.strength:10}")
+    private int strength;
+
+    @Value("${auth.hashing.threads:0}")
+    private int threads;
+
+    @Value("${auth.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${auth.hashing.retry-after:2s}")
+    private Duration retryAfter;
+
+    private ThreadPoolExecutor executor;
+
+    // Hash of a random password, checked for unknown usernames so they take as long as known ones
+    private String dummyHash;
+
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        dummyHash = passwordEncoder.encode(Long.toHexString(System.nanoTime()));
+
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password-hasher");
+        encodeTimer = Timer.builder("auth.password.hashing").tag("operation", "encode")
+                .description("Time spent computing password hashes").register(meterRegistry);
+        matchesTimer = Timer.builder("auth.password.hashing").tag("operation", "matches")
+                .description("Time spent computing password hashes").register(meterRegistry);
+        rejected = Counter.builder("auth.password.hashing.rejected")
+                .description("Password hashing requests turned away because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws ServiceUnavailableException if the hashing queue is full
+     */
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        return submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    /**
+     * Checks a password against a stored hash, or against a dummy hash when
+     * there is none, so that a missing user is not revealed by timing.
+     *
+     * @throws ServiceUnavailableException if the hashing queue is full
+     */
+    public CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        String encoded = encodedPassword != null ? encodedPassword : dummyHash;
+        return submit(() -> matchesTimer.record(() -> passwordEncoder.matches(rawPassword, encoded))
+                && encodedPassword != null);
+    }
+
+    /**
+     * @return whether a stored hash was computed with a cost other than {@code auth.bcrypt.strength}
+     */
+    public boolean needsRehash(String encodedPassword) {
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many sign-in requests, please retry later", retryAfter);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
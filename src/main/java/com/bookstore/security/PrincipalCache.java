@@ -0,0 +1,102 @@
+package com.bookstore.security;
+
+import com.bookstore.dto.PrincipalVersion;
+import com.bookstore.event.UserEvent;
+import com.bookstore.model.Role;
+import com.bookstore.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Decides whether the role and token version claimed by a token are still
+ * current, so that requests are authenticated from the token without loading
+ * the user. The current role and version of each user are read once and kept
+ * for {@code jwt.principal-cache.ttl}; changes made through the application
+ * evict them at once, and the expiry bounds how long a change made directly
+ * in the database goes unnoticed.
+ */
+@Component
+public class PrincipalCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.principal-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${jwt.principal-cache.ttl:5m}")
+    private Duration ttl;
+
+    // Holds futures so that a version is read by the first request that needs it, outside any lock: a
+    // loading cache would query while holding a map lock, pinning a virtual thread to its carrier. Other
+    // requests for the same user wait for that read, and an eviction during it keeps the result out.
+    private AsyncCache<Long, PrincipalVersion> versions;
+
+    @PostConstruct
+    void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * @return the principal described by the claims, or null if the user was
+     *         deleted or its role or token version changed since the token was issued
+     */
+    public UserDetailsImpl resolve(Long userId, String username, Role role, long tokenVersion) {
+        if (!version(userId).matches(role, tokenVersion)) {
+            logger.debug("Token of user {} is no longer current", username);
+            return null;
+        }
+        return UserDetailsImpl.fromToken(userId, username, role, tokenVersion);
+    }
+
+    private PrincipalVersion version(Long userId) {
+        CompletableFuture<PrincipalVersion> version = versions.getIfPresent(userId);
+        if (version == null) {
+            CompletableFuture<PrincipalVersion> loading = new CompletableFuture<>();
+            version = versions.asMap().putIfAbsent(userId, loading);
+            if (version == null) {
+                version = loading;
+                try {
+                    loading.complete(userRepository.findPrincipalVersionById(userId).orElse(PrincipalVersion.DELETED));
+                } catch (RuntimeException e) {
+                    // Removed from the cache, so the next request reads again
+                    loading.completeExceptionally(e);
+                }
+            }
+        }
+        return version.join();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserEvent(UserEvent event) {
+        if (event.getUserId() != null) {
+            versions.synchronous().invalidate(event.getUserId());
+        } else {
+            versions.synchronous().invalidateAll();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, versions, "principals");
+    }
+}
@@ -1,5 +1,6 @@
 package com.bookstore.security;
 
+import com.bookstore.model.Role;
 import com.bookstore.model.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.security.core.GrantedAuthority;
@@ -7,12 +8,23 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 public class UserDetailsImpl implements UserDetails {
     private static final long serialVersionUID = 1L;
 
+    // Shared, since every principal of a role has the same authorities
+    private static final Map<Role, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(Role.class);
+
+    static {
+        for (Role role : Role.values()) {
+            AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
+
     private Long id;
     private String username;
     private String email;
@@ -20,27 +32,38 @@ public class UserDetailsImpl implements UserDetails {
     @JsonIgnore
     private String password;
 
+    private Role role;
+
+    private long tokenVersion;
+
     private Collection<? extends GrantedAuthority> authorities;
 
-    public UserDetailsImpl(Long id, String username, String email, String password,
-            Collection<? extends GrantedAuthority> authorities) {
+    public UserDetailsImpl(Long id, String username, String email, String password, Role role, long tokenVersion) {
         this.id = id;
         this.username = username;
         this.email = email;
         this.password = password;
-        this.authorities = authorities;
+        this.role = role;
+        this.tokenVersion = tokenVersion;
+        this.authorities = AUTHORITIES.get(role);
     }
 
     public static UserDetailsImpl build(User user) {
-        List<GrantedAuthority> authorities = List.of(
-                new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
-
         return new UserDetailsImpl(
                 user.getId(),
                 user.getUsername(),
                 user.getEmail(),
                 user.getPassword(),
-                authorities);
+                user.getRole(),
+                user.getTokenVersion());
+    }
+
+    /**
+     * A principal rebuilt from the claims of a verified token, without the
+     * email and password, which requests never need.
+     */
+    public static UserDetailsImpl fromToken(Long id, String username, Role role, long tokenVersion) {
+        return new UserDetailsImpl(id, username, null, null, role, tokenVersion);
     }
 
     @Override
@@ -56,6 +79,14 @@ public class UserDetailsImpl implements UserDetails {
         return email;
     }
 
+    public Role getRole() {
+        return role;
+    }
+
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+
     @Override
     public String getPassword() {
         return password;
@@ -4,74 +4,121 @@ import com.bookstore.dto.JwtResponse;
 import com.bookstore.dto.LoginRequest;
 import com.bookstore.dto.MessageResponse;
 import com.bookstore.dto.SignupRequest;
+import com.bookstore.exception.ServiceUnavailableException;
 import com.bookstore.model.User;
 import com.bookstore.repository.UserRepository;
 import com.bookstore.security.JwtUtils;
+import com.bookstore.security.PasswordHasher;
 import com.bookstore.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 @Service
 public class AuthService {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
 
-    @Autowired
-    private AuthenticationManager authenticationManager;
-
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder encoder;
+    private PasswordHasher passwordHasher;
 
     @Autowired
     private JwtUtils jwtUtils;
 
-    public JwtResponse authenticateUser(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+    // Database writes that follow a hash run here, so the hashing threads only ever hash
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private Executor taskExecutor;
+
+    /**
+     * Checks the password on the {@link PasswordHasher}, so the request thread
+     * is released while BCrypt runs. A hash made with another cost than the
+     * configured one is replaced in the background once the password matched.
+     *
+     * @throws ServiceUnavailableException if the hasher is saturated
+     */
+    public CompletableFuture<JwtResponse> authenticateUser(LoginRequest loginRequest) {
+        User user = userRepository.findByUsername(loginRequest.getUsername()).orElse(null);
+        String encodedPassword = user != null ? user.getPassword() : null;
+
+        return passwordHasher.matches(loginRequest.getPassword(), encodedPassword).thenApply(matches -> {
+            if (!matches) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            if (passwordHasher.needsRehash(encodedPassword)) {
+                rehash(user.getId(), loginRequest.getPassword(), encodedPassword);
+            }
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
+            UserDetailsImpl userDetails = UserDetailsImpl.build(user);
+            String jwt = jwtUtils.generateJwtToken(
+                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
 
-        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+            return new JwtResponse(jwt,
+                    userDetails.getId(),
+                    userDetails.getUsername(),
+                    userDetails.getEmail(),
+                    userDetails.getAuthorities().stream().findFirst().get().getAuthority());
+        });
+    }
 
-        return new JwtResponse(jwt,
-                userDetails.getId(),
-                userDetails.getUsername(),
-                userDetails.getEmail(),
-                userDetails.getAuthorities().stream().findFirst().get().getAuthority());
+    private void rehash(Long userId, String rawPassword, String encodedPassword) {
+        try {
+            passwordHasher.encode(rawPassword)
+                    .thenAcceptAsync(newPassword -> {
+                        // Skipped if the password was changed in the meantime
+                        if (userRepository.updatePassword(userId, encodedPassword, newPassword) > 0) {
+                            logger.info("Re-hashed the password of user {} with the configured cost", userId);
+                        }
+                    }, taskExecutor)
+                    .exceptionally(ex -> {
+                        logger.warn("Cannot re-hash the password of user {}: {}", userId, ex.getMessage());
+                        return null;
+                    });
+        } catch (ServiceUnavailableException e) {
+            // Left for a later login rather than competing with sign-ins for the hasher
+            logger.debug("Hasher busy, not re-hashing the password of user {}", userId);
+        }
     }
 
-    @Transactional
-    public MessageResponse registerUser(SignupRequest signUpRequest) {
+    /**
+     * Checks for duplicates on the calling thread and hashes the password on
+     * the {@link PasswordHasher}; the user is saved once the hash is ready,
+     * on the application task executor rather than a hashing thread.
+     *
+     * @throws ServiceUnavailableException if the hasher is saturated
+     */
+    public CompletableFuture<MessageResponse> registerUser(SignupRequest signUpRequest) {
         logger.info("Registering user: {}", signUpRequest.getUsername());
         if (userRepository.existsByUsername(signUpRequest.getUsername())) {
             logger.warn("Username is already taken: {}", signUpRequest.getUsername());
-            return new MessageResponse("Error: Username is already taken!");
+            return CompletableFuture.completedFuture(new MessageResponse("Error: Username is already taken!"));
         }
 
         if (userRepository.existsByEmail(signUpRequest.getEmail())) {
             logger.warn("Email is already in use: {}", signUpRequest.getEmail());
-            return new MessageResponse("Error: Email is already in use!");
+            return CompletableFuture.completedFuture(new MessageResponse("Error: Email is already in use!"));
         }
 
-        // Create new user's account
-        User user = new User(signUpRequest.getUsername(),
-                signUpRequest.getEmail(),
-                encoder.encode(signUpRequest.getPassword()));
+        return passwordHasher.encode(signUpRequest.getPassword()).thenApplyAsync(encodedPassword -> {
+            // Create new user's account
+            User user = new User(signUpRequest.getUsername(),
+                    signUpRequest.getEmail(),
+                    encodedPassword);
 
-        userRepository.save(user);
-        logger.info("User registered successfully: {}", signUpRequest.getUsername());
-        return new MessageResponse("User registered successfully!");
+            userRepository.save(user);
+            logger.info("User registered successfully: {}", signUpRequest.getUsername());
+            return new MessageResponse("User registered successfully!");
+        }, taskExecutor);
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,17 @@
 package com.bookstore.service;
 
 import com.bookstore.dto.AuthorDto;
+import com.bookstore.dto.ResourceVersion;
+import com.bookstore.event.CatalogEvent;
 import com.bookstore.model.Author;
 import com.bookstore.repository.AuthorRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,18 +24,30 @@ public class AuthorService {
     @Autowired
     private AuthorRepository authorRepository;
 
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
     public List<AuthorDto> getAllAuthors() {
         logger.info("Retrieving all authors");
-        return authorRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return authorRepository.findAllAuthorDtos();
     }
 
+    @Transactional(readOnly = true)
     public AuthorDto getAuthorById(Long id) {
         logger.info("Retrieving author with ID: {}", id);
-        Author author = authorRepository.findById(id)
+        // Served from the second-level cache once the author has been loaded
+        return authorRepository.findById(id)
+                .map(this::convertToDto)
                 .orElseThrow(() -> new EntityNotFoundException("Author not found with id: " + id));
-        return convertToDto(author);
+    }
+
+    @Transactional(readOnly = true)
+    public ResourceVersion getAuthorsVersion() {
+        return authorRepository.findVersionOfAll();
     }
 
     @Transactional
@@ -45,7 +59,9 @@ public class AuthorService {
 
         Author savedAuthor = authorRepository.save(author);
         logger.info("Author created successfully: {}", savedAuthor);
-        return convertToDto(savedAuthor);
+        AuthorDto savedDto = convertToDto(savedAuthor);
+        eventPublisher.publishEvent(CatalogEvent.authorCreated(savedDto));
+        return savedDto;
     }
 
     @Transactional
@@ -54,22 +70,28 @@ public class AuthorService {
         Author author = authorRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Author not found with id: " + id));
 
+        if (!author.getName().equals(authorDto.getName())) {
+            changeFeedService.recordAuthorBooksChanged(id);
+        }
         author.setName(authorDto.getName());
         author.setBiography(authorDto.getBiography());
 
         Author updatedAuthor = authorRepository.save(author);
         logger.info("Author updated successfully: {}", updatedAuthor);
-        return convertToDto(updatedAuthor);
+        AuthorDto updatedDto = convertToDto(updatedAuthor);
+        eventPublisher.publishEvent(CatalogEvent.authorUpdated(updatedDto));
+        return updatedDto;
     }
 
     @Transactional
     public void deleteAuthor(Long id) {
         logger.info("Deleting author with ID: {}", id);
-        if (!authorRepository.existsById(id)) {
+        changeFeedService.recordAuthorBooksDeleted(id);
+        if (authorRepository.deleteAuthorById(id) == 0) {
             logger.error("Author not found with id: {}", id);
             throw new EntityNotFoundException("Author not found with id: " + id);
         }
-        authorRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogEvent.authorDeleted(id));
         logger.info("Author deleted successfully with ID: {}", id);
     }
 
@@ -77,13 +99,16 @@ public class AuthorService {
         return new AuthorDto(
                 author.getId(),
                 author.getName(),
-                author.getBiography());
+                author.getBiography(),
+                author.getUpdatedDate());
     }
 
     @Transactional
     public void deleteAllAuthors() {
         logger.info("Deleting all authors");
-        authorRepository.deleteAll();
+        changeFeedService.recordAllBooksDeleted();
+        authorRepository.deleteAllInBatch();
+        eventPublisher.publishEvent(CatalogEvent.bulkChange());
         logger.info("All authors deleted successfully");
     }
 }
\ No newline at end of file
@@ -0,0 +1,200 @@
+package com.bookstore.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams the catalog straight from a forward-only JDBC cursor to the
+ * response, one row at a time, so memory use does not grow with the catalog.
+ */
+@Service
+public class BookExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookExportService.class);
+
+    private static final String[] COLUMNS = {
+            "id", "title", "isbn", "price", "description", "authorId", "authorName", "updatedDate" };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    public void exportBooks(CatalogFormat format, Long authorId, LocalDateTime updatedSince, OutputStream out)
+            throws IOException {
+        logger.info("Exporting books as {} (author ID: {}, updated since: {})", format, authorId, updatedSince);
+
+        StringBuilder sql = new StringBuilder("select b.id, b.title, b.isbn, b.price, b.description, "
+                + "a.id as author_id, a.name as author_name, b.updated_date "
+                + "from books b left join authors a on a.id = b.author_id");
+        List<Object> args = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (authorId != null) {
+            conditions.add("b.author_id = ?");
+            args.add(authorId);
+        }
+        if (updatedSince != null) {
+            conditions.add("b.updated_date >= ?");
+            args.add(Timestamp.valueOf(updatedSince));
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" where ").append(String.join(" and ", conditions));
+        }
+        sql.append(" order by b.id");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = format == CatalogFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        long[] rows = new long[1];
+
+        // PostgreSQL only honours the fetch size inside a transaction; without one it buffers the whole result
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) resultSet -> {
+            try {
+                rowWriter.write(resultSet);
+                rows[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+
+        rowWriter.finish();
+        writer.flush();
+        logger.info("Exported {} books", rows[0]);
+    }
+
+    private interface RowWriter {
+        void write(ResultSet row) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(ResultSet row) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField(COLUMNS[0], row.getLong(1));
+            generator.writeStringField(COLUMNS[1], row.getString(2));
+            generator.writeStringField(COLUMNS[2], row.getString(3));
+            BigDecimal price = row.getBigDecimal(4);
+            if (price != null) {
+                generator.writeNumberField(COLUMNS[3], price);
+            } else {
+                generator.writeNullField(COLUMNS[3]);
+            }
+            generator.writeStringField(COLUMNS[4], row.getString(5));
+            long authorId = row.getLong(6);
+            if (!row.wasNull()) {
+                generator.writeNumberField(COLUMNS[5], authorId);
+            } else {
+                generator.writeNullField(COLUMNS[5]);
+            }
+            generator.writeStringField(COLUMNS[6], row.getString(7));
+            generator.writeStringField(COLUMNS[7], formatTimestamp(row.getTimestamp(8)));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet row) throws SQLException, IOException {
+            writer.write(Long.toString(row.getLong(1)));
+            writeField(row.getString(2));
+            writeField(row.getString(3));
+            BigDecimal price = row.getBigDecimal(4);
+            writeField(price != null ? price.toPlainString() : null);
+            writeField(row.getString(5));
+            long authorId = row.getLong(6);
+            writeField(row.wasNull() ? null : Long.toString(authorId));
+            writeField(row.getString(7));
+            writeField(formatTimestamp(row.getTimestamp(8)));
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            writer.write(',');
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    private static String formatTimestamp(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+    }
+}
@@ -0,0 +1,360 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.ImportReport;
+import com.bookstore.event.CatalogEvent;
+import com.bookstore.exception.InvalidRequestException;
+import com.bookstore.model.Isbn;
+import com.bookstore.model.Sequences;
+import com.bookstore.repository.SequenceIdAllocator;
+import com.bookstore.search.IsbnIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk loads books from CSV or NDJSON. Input is parsed as a stream, authors
+ * are resolved through an in-memory name-to-id map, and books are written
+ * with JDBC batch inserts, one transaction per chunk. A chunk the database
+ * refuses is written again row by row, and only the failing rows are rejected.
+ */
+@Service
+public class BookImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookImportService.class);
+
+    private static final String INSERT_BOOK = "insert into books "
+            + "(id, title, isbn, isbn_key, price, description, author_id, created_date, updated_date, change_seq) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_AUTHOR = "insert into authors "
+            + "(id, name, created_date, updated_date) values (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SequenceIdAllocator idAllocator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private IsbnIndex isbnIndex;
+
+    @Value("${import.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${import.max-reported-rejections:100}")
+    private int maxReportedRejections;
+
+    public ImportReport importBooks(CatalogFormat format, InputStream in) throws IOException {
+        logger.info("Importing books as {}", format);
+        long start = System.nanoTime();
+        ImportRun run = new ImportRun();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == CatalogFormat.CSV) {
+            readCsv(reader, run);
+        } else {
+            readNdjson(reader, run);
+        }
+        run.flush();
+
+        ImportReport report = run.report;
+        if (report.getImported() > 0) {
+            eventPublisher.publishEvent(CatalogEvent.bulkChange());
+        }
+        report.setDurationMs((System.nanoTime() - start) / 1_000_000);
+        report.setRowsPerSecond(report.getImported() * 1000.0 / Math.max(1, report.getDurationMs()));
+        logger.info("Imported {} books ({} rejected, {} authors created) in {} ms ({} rows/s)",
+                report.getImported(), report.getRejected(), report.getAuthorsCreated(),
+                report.getDurationMs(), Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("title") || !columns.containsKey("price")
+                || (!columns.containsKey("authorid") && !columns.containsKey("authorname"))) {
+            throw new InvalidRequestException("CSV header must contain title, price and authorId or authorName");
+        }
+
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            if (record.size() == 1 && record.get(0).isEmpty()) {
+                continue;
+            }
+            ImportRow row = new ImportRow(csv.getRecordLine());
+            row.title = field(record, columns, "title");
+            row.isbn = field(record, columns, "isbn");
+            row.price = field(record, columns, "price");
+            row.description = field(record, columns, "description");
+            row.authorId = field(record, columns, "authorid");
+            row.authorName = field(record, columns, "authorname");
+            run.accept(row);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ImportRow row = new ImportRow(lineNumber);
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                row.title = text(node, "title");
+                row.isbn = text(node, "isbn");
+                row.price = text(node, "price");
+                row.description = text(node, "description");
+                row.authorId = text(node, "authorId");
+                row.authorName = text(node, "authorName");
+            } catch (IOException e) {
+                run.reject(lineNumber, "Malformed JSON");
+                continue;
+            }
+            run.accept(row);
+        }
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String text(JsonNode node, String name) {
+        JsonNode value = node.get(name);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        String text = value.asText().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static class ImportRow {
+        final long line;
+        String title;
+        String isbn;
+        String price;
+        String description;
+        String authorId;
+        String authorName;
+        BigDecimal parsedPrice;
+        Long isbnKey;
+        Long resolvedAuthorId;
+
+        ImportRow(long line) {
+            this.line = line;
+        }
+    }
+
+    /**
+     * State of a single import: the author lookup tables, the pending chunk and the report.
+     */
+    private class ImportRun {
+        final ImportReport report = new ImportReport();
+        final Map<String, Long> authorIdsByName = new HashMap<>();
+        final Set<Long> authorIds = new HashSet<>();
+        final Set<Long> isbnKeys = new HashSet<>();
+        final List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        ImportRun() {
+            jdbcTemplate.query("select id, name from authors", resultSet -> {
+                long id = resultSet.getLong(1);
+                authorIds.add(id);
+                authorIdsByName.putIfAbsent(resultSet.getString(2), id);
+            });
+        }
+
+        void accept(ImportRow row) {
+            String error = validate(row);
+            if (error != null) {
+                reject(row.line, error);
+                return;
+            }
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        String validate(ImportRow row) {
+            if (row.title == null) {
+                return "Title is required";
+            }
+            if (row.price == null) {
+                return "Price is required";
+            }
+            try {
+                row.parsedPrice = new BigDecimal(row.price);
+            } catch (NumberFormatException e) {
+                return "Invalid price: " + row.price;
+            }
+            if (row.parsedPrice.signum() <= 0) {
+                return "Price must be positive";
+            }
+            if (row.isbn != null) {
+                row.isbnKey = Isbn.keyOf(row.isbn);
+                if (row.isbnKey == null) {
+                    return "Invalid ISBN: " + row.isbn;
+                }
+                if (isbnIndex.findBookId(row.isbnKey) != IsbnIndex.NO_BOOK || !isbnKeys.add(row.isbnKey)) {
+                    return "Duplicate ISBN: " + row.isbn;
+                }
+            }
+            if (row.authorId != null) {
+                try {
+                    row.resolvedAuthorId = Long.valueOf(row.authorId);
+                } catch (NumberFormatException e) {
+                    return "Invalid author ID: " + row.authorId;
+                }
+                if (!authorIds.contains(row.resolvedAuthorId)) {
+                    return "Author not found with id: " + row.authorId;
+                }
+            } else if (row.authorName != null) {
+                // Null for authors that do not exist yet; they are created when the chunk is written
+                row.resolvedAuthorId = authorIdsByName.get(row.authorName);
+            } else {
+                return "Author ID or name is required";
+            }
+            return null;
+        }
+
+        void reject(long line, String message) {
+            report.setRejected(report.getRejected() + 1);
+            if (report.getRejections().size() < maxReportedRejections) {
+                report.getRejections().add(new ImportReport.RejectedRow(line, message));
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                write(chunk);
+            } catch (RuntimeException e) {
+                // Retried row by row, so that only the rows the database refuses are rejected
+                logger.warn("Failed to import chunk of {} books, retrying row by row: {}", chunk.size(),
+                        NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                for (ImportRow row : chunk) {
+                    try {
+                        write(List.of(row));
+                    } catch (RuntimeException rowError) {
+                        isbnKeys.remove(row.isbnKey);
+                        reject(row.line, "Rejected by database: "
+                                + NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                    }
+                }
+            }
+            chunk.clear();
+        }
+
+        /**
+         * Writes the rows and the authors they name in one transaction. When
+         * it rolls back, the authors it created are forgotten again.
+         */
+        void write(List<ImportRow> rows) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<String> createdAuthors = new ArrayList<>();
+            try {
+                transaction.executeWithoutResult(status -> {
+                    for (ImportRow row : rows) {
+                        if (row.resolvedAuthorId == null) {
+                            row.resolvedAuthorId = authorIdsByName.computeIfAbsent(row.authorName, name -> {
+                                createdAuthors.add(name);
+                                return createAuthor(name, now);
+                            });
+                        }
+                    }
+                    // One change number per chunk; the feed orders books within it by id
+                    long changeSeq = changeFeedService.nextSequence();
+                    jdbcTemplate.batchUpdate(INSERT_BOOK, rows, rows.size(), (statement, row) -> {
+                        statement.setLong(1, idAllocator.nextId(Sequences.BOOKS));
+                        statement.setString(2, row.title);
+                        statement.setString(3, row.isbn);
+                        statement.setObject(4, row.isbnKey, Types.BIGINT);
+                        statement.setBigDecimal(5, row.parsedPrice);
+                        statement.setString(6, row.description);
+                        statement.setLong(7, row.resolvedAuthorId);
+                        statement.setTimestamp(8, now);
+                        statement.setTimestamp(9, now);
+                        statement.setLong(10, changeSeq);
+                    });
+                });
+            } catch (RuntimeException e) {
+                // The authors created in the rolled back transaction no longer exist
+                for (String name : createdAuthors) {
+                    authorIds.remove(authorIdsByName.remove(name));
+                }
+                for (ImportRow row : rows) {
+                    if (row.authorId == null && !authorIdsByName.containsKey(row.authorName)) {
+                        row.resolvedAuthorId = null;
+                    }
+                }
+                throw e;
+            }
+            report.setImported(report.getImported() + rows.size());
+            report.setAuthorsCreated(report.getAuthorsCreated() + createdAuthors.size());
+            logger.debug("Imported chunk of {} books ({} so far)", rows.size(), report.getImported());
+        }
+
+        Long createAuthor(String name, Timestamp now) {
+            long id = idAllocator.nextId(Sequences.AUTHORS);
+            jdbcTemplate.update(INSERT_AUTHOR, id, name, now, now);
+            authorIds.add(id);
+            return id;
+        }
+    }
+}
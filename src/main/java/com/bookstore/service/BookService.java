@@ -1,16 +1,35 @@
 package com.bookstore.service;
 
+import com.bookstore.dto.BookCursor;
 import com.bookstore.dto.BookDto;
+import com.bookstore.dto.BookSort;
+import com.bookstore.dto.CursorPage;
+import com.bookstore.dto.FacetResult;
+import com.bookstore.dto.ResourceVersion;
+import com.bookstore.event.CatalogEvent;
+import com.bookstore.exception.InvalidRequestException;
 import com.bookstore.model.Author;
 import com.bookstore.model.Book;
+import com.bookstore.model.Isbn;
 import com.bookstore.repository.AuthorRepository;
 import com.bookstore.repository.BookRepository;
+import com.bookstore.search.BookSearchIndex;
+import com.bookstore.search.FacetFilter;
+import com.bookstore.search.FacetIndex;
+import com.bookstore.search.IsbnIndex;
+import com.bookstore.search.SuggestionIndex;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -27,43 +46,195 @@ public class BookService {
     @Autowired
     private AuthorRepository authorRepository;
 
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private IsbnIndex isbnIndex;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${pagination.default-limit:20}")
+    private int defaultPageLimit;
+
+    @Value("${pagination.max-limit:100}")
+    private int maxPageLimit;
+
+    @Transactional(readOnly = true)
     public List<BookDto> getAllBooks() {
         logger.info("Retrieving all books");
-        return bookRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return bookRepository.findAllBookDtos();
     }
 
+    @Transactional(readOnly = true)
     public BookDto getBookById(Long id) {
         logger.info("Retrieving book with ID: {}", id);
-        Book book = bookRepository.findById(id)
+        BookDto book = bookRepository.findBookDtoById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Book not found with id: " + id));
-        return convertToDto(book);
+        suggestionIndex.recordBookView(id);
+        return book;
+    }
+
+    /**
+     * Version of a single book, read without loading it. It changes when the
+     * book or the name of its author changes.
+     */
+    @Transactional(readOnly = true)
+    public ResourceVersion getBookVersion(Long id) {
+        return bookRepository.findVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Book not found with id: " + id));
+    }
+
+    /**
+     * Version of the whole book collection, valid for every page of it.
+     */
+    @Transactional(readOnly = true)
+    public ResourceVersion getBooksVersion() {
+        return bookRepository.findVersionOfAll();
     }
 
+    @Transactional(readOnly = true)
+    public ResourceVersion getBooksByAuthorVersion(Long authorId) {
+        return bookRepository.findVersionByAuthorId(authorId);
+    }
+
+    /**
+     * Looks a book up by ISBN-10 or ISBN-13. The ISBN is resolved to a book id
+     * in memory, so unknown ISBNs are answered without touching the database.
+     */
+    @Transactional(readOnly = true)
+    public BookDto getBookByIsbn(String isbn) {
+        logger.info("Retrieving book with ISBN: {}", isbn);
+        long bookId = isbnIndex.findBookId(Isbn.parse(isbn));
+        if (bookId == IsbnIndex.NO_BOOK) {
+            throw new EntityNotFoundException("Book not found with ISBN: " + isbn);
+        }
+        return getBookById(bookId);
+    }
+
+    // Through the query cache: the ids of the author's books, then the books and author from their regions
+    @Transactional(readOnly = true)
     public List<BookDto> getBooksByAuthorId(Long authorId) {
         logger.info("Retrieving books by author ID: {}", authorId);
         return bookRepository.findByAuthorId(authorId).stream()
-                .map(this::convertToDto)
+                .map(BookService::convertToVersionedDto)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns one page of books using keyset pagination. {@code authorId} is
+     * optional; when {@code after} is given its sort order takes precedence.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookDto> getBooksPage(Long authorId, String sortProperty, String after, Integer limit) {
+        logger.info("Retrieving page of books (author ID: {}, sort: {}, limit: {})", authorId, sortProperty, limit);
+        BookCursor cursor = after != null ? BookCursor.decode(after) : null;
+        BookSort sort = resolveSort(sortProperty, cursor);
+        int pageLimit = resolveLimit(limit);
+
+        // Fetch one extra row to find out whether another page follows
+        List<BookDto> books = bookRepository.findPage(authorId, sort, cursor, pageLimit + 1);
+        String nextCursor = null;
+        if (books.size() > pageLimit) {
+            books = books.subList(0, pageLimit);
+            BookDto last = books.get(pageLimit - 1);
+            nextCursor = new BookCursor(sort, sort.keyOf(last), last.getId()).encode();
+        }
+
+        return new CursorPage<>(books, pageLimit, nextCursor);
+    }
+
+    /**
+     * Full-text search over title, description, ISBN and author name, best match first.
+     */
+    @Transactional(readOnly = true)
+    public List<BookDto> searchBooks(String query, Integer limit) {
+        logger.info("Searching books for: {}", query);
+        return findBookDtosInOrder(bookSearchIndex.search(query, resolveLimit(limit)));
+    }
+
+    /**
+     * Books matching the selected facet values, in id order, with the facet counts.
+     */
+    @Transactional(readOnly = true)
+    public FacetResult facetBooks(FacetFilter filter, Integer limit) {
+        logger.info("Filtering books by facets");
+        FacetIndex.Selection selection = facetIndex.select(filter, resolveLimit(limit));
+        return new FacetResult(selection.getTotal(), findBookDtosInOrder(selection.getBookIds()),
+                selection.getFacets());
+    }
+
+    private List<BookDto> findBookDtosInOrder(long[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        Map<Long, BookDto> books = bookRepository.findBookDtosByIdIn(idList).stream()
+                .collect(Collectors.toMap(BookDto::getId, Function.identity()));
+        List<BookDto> results = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            BookDto book = books.get(id);
+            if (book != null) {
+                results.add(book);
+            }
+        }
+        return results;
+    }
+
+    private BookSort resolveSort(String sortProperty, BookCursor cursor) {
+        if (sortProperty == null) {
+            return cursor != null ? cursor.getSort() : BookSort.ID;
+        }
+        BookSort sort = BookSort.fromProperty(sortProperty);
+        if (cursor != null && cursor.getSort() != sort) {
+            throw new InvalidRequestException("Cursor was issued for sort property: " + cursor.getSort().getProperty());
+        }
+        return sort;
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return defaultPageLimit;
+        }
+        if (limit < 1) {
+            throw new InvalidRequestException("Limit must be positive");
+        }
+        return Math.min(limit, maxPageLimit);
+    }
+
     @Transactional
     public BookDto createBook(BookDto bookDto) {
         logger.info("Creating book: {}", bookDto);
         Author author = authorRepository.findById(bookDto.getAuthorId())
                 .orElseThrow(() -> new EntityNotFoundException("Author not found with id: " + bookDto.getAuthorId()));
 
+        checkIsbn(bookDto.getIsbn(), null);
         Book book = new Book();
         book.setTitle(bookDto.getTitle());
         book.setIsbn(bookDto.getIsbn());
         book.setPrice(bookDto.getPrice());
         book.setDescription(bookDto.getDescription());
         book.setAuthor(author);
+        book.setChangeSeq(changeFeedService.nextSequence());
 
         Book savedBook = bookRepository.save(book);
         logger.info("Book created successfully: {}", savedBook);
-        return convertToDto(savedBook);
+        BookDto savedDto = convertToDto(savedBook);
+        eventPublisher.publishEvent(CatalogEvent.bookCreated(savedDto));
+        return savedDto;
     }
 
     @Transactional
@@ -72,35 +243,55 @@ public class BookService {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Book not found with id: " + id));
 
-        if (!book.getAuthor().getId().equals(bookDto.getAuthorId())) {
+        Long formerAuthorId = book.getAuthor().getId();
+        if (!formerAuthorId.equals(bookDto.getAuthorId())) {
             Author author = authorRepository.findById(bookDto.getAuthorId())
                     .orElseThrow(
                             () -> new EntityNotFoundException("Author not found with id: " + bookDto.getAuthorId()));
             book.setAuthor(author);
         }
 
+        checkIsbn(bookDto.getIsbn(), id);
         book.setTitle(bookDto.getTitle());
         book.setIsbn(bookDto.getIsbn());
         book.setPrice(bookDto.getPrice());
         book.setDescription(bookDto.getDescription());
+        book.setChangeSeq(changeFeedService.nextSequence());
 
         Book updatedBook = bookRepository.save(book);
         logger.info("Book updated successfully: {}", updatedBook);
-        return convertToDto(updatedBook);
+        BookDto updatedDto = convertToDto(updatedBook);
+        eventPublisher.publishEvent(CatalogEvent.bookUpdated(updatedDto, formerAuthorId));
+        return updatedDto;
     }
 
     @Transactional
     public void deleteBook(Long id) {
         logger.info("Deleting book with ID: {}", id);
-        if (!bookRepository.existsById(id)) {
+        // Listeners need the author to know which per-author views changed
+        Long authorId = bookRepository.findAuthorIdById(id).orElse(null);
+        changeFeedService.recordBookDeleted(id);
+        if (bookRepository.deleteBookById(id) == 0) {
             logger.error("Book not found with id: {}", id);
             throw new EntityNotFoundException("Book not found with id: " + id);
         }
-        bookRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogEvent.bookDeleted(id, authorId));
         logger.info("Book deleted successfully with ID: {}", id);
     }
 
-    private BookDto convertToDto(Book book) {
+    // The unique index on the ISBN key has the final say; this gives the common case a clear message
+    private void checkIsbn(String isbn, Long bookId) {
+        if (isbn == null || isbn.isBlank()) {
+            return;
+        }
+        long owner = isbnIndex.findBookId(Isbn.parse(isbn));
+        if (owner != IsbnIndex.NO_BOOK && !Long.valueOf(owner).equals(bookId)) {
+            throw new DataIntegrityViolationException("A book with ISBN " + isbn + " already exists");
+        }
+    }
+
+    // Package-private for BookDtoBenchmark
+    BookDto convertToDto(Book book) {
         return new BookDto(
                 book.getId(),
                 book.getTitle(),
@@ -108,13 +299,24 @@ public class BookService {
                 book.getPrice(),
                 book.getDescription(),
                 book.getAuthor().getId(),
-                book.getAuthor().getName());
+                book.getAuthor().getName(),
+                book.getCreatedDate());
+    }
+
+    // With the modification dates that the validators of conditional GETs are computed from
+    private static BookDto convertToVersionedDto(Book book) {
+        Author author = book.getAuthor();
+        return new BookDto(book.getId(), book.getTitle(), book.getIsbn(), book.getPrice(), book.getDescription(),
+                author.getId(), author.getName(), book.getCreatedDate(), book.getUpdatedDate(),
+                author.getUpdatedDate());
     }
 
     @Transactional
     public void deleteAllBooks() {
         logger.info("Deleting all books");
-        bookRepository.deleteAll();
+        changeFeedService.recordAllBooksDeleted();
+        bookRepository.deleteAllInBatch();
+        eventPublisher.publishEvent(CatalogEvent.bulkChange());
         logger.info("All books deleted successfully");
     }
 }
\ No newline at end of file
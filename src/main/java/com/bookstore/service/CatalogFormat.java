@@ -0,0 +1,34 @@
+package com.bookstore.service;
+
+import com.bookstore.exception.InvalidRequestException;
+
+/**
+ * Line-oriented formats accepted by the catalog import and produced by the export.
+ */
+public enum CatalogFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    CatalogFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static CatalogFormat fromParameter(String value) {
+        for (CatalogFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new InvalidRequestException("Unsupported format: " + value);
+    }
+
+    public static CatalogFormat fromFileName(String fileName) {
+        return fileName.toLowerCase().endsWith(".csv") ? CSV : NDJSON;
+    }
+}
@@ -0,0 +1,144 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.BookChange;
+import com.bookstore.dto.ChangeCursor;
+import com.bookstore.dto.ChangeFeed;
+import com.bookstore.exception.InvalidRequestException;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.BookTombstoneRepository;
+import com.bookstore.repository.ChangeSequence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Incremental sync for the book catalog. Every book write stamps the book
+ * with the next change number, and every delete leaves a tombstone with its
+ * own number, so a client can ask for everything after the last change it
+ * has seen. Both tables are read through a (change number, book id) index,
+ * so a request costs time proportional to the changes it returns.
+ */
+@Service
+public class ChangeFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    private static final Comparator<BookChange> FEED_ORDER =
+            Comparator.comparingLong(BookChange::getSequence).thenComparing(BookChange::getBookId);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookTombstoneRepository bookTombstoneRepository;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Value("${changes.default-limit:100}")
+    private int defaultLimit;
+
+    @Value("${changes.max-limit:1000}")
+    private int maxLimit;
+
+    /**
+     * Returns the changes after {@code since} (or from the beginning when it
+     * is null), oldest first. A book changed several times appears once, with
+     * its latest state.
+     */
+    @Transactional(readOnly = true)
+    public ChangeFeed getChanges(String since, Integer limit) {
+        logger.info("Retrieving book changes (limit: {})", limit);
+        ChangeCursor cursor = since != null ? ChangeCursor.decode(since) : ChangeCursor.START;
+        int pageLimit = resolveLimit(limit);
+        // Read up to the horizon only, so a slow transaction cannot commit behind a cursor already handed out
+        long horizon = changeSequence.horizon();
+
+        // Fetch one extra row to find out whether another page follows
+        Pageable page = PageRequest.of(0, pageLimit + 1);
+        List<BookChange> changes = new ArrayList<>(bookRepository.findChanges(
+                cursor.getSequence(), cursor.getBookId(), horizon, page));
+        changes.addAll(bookTombstoneRepository.findChanges(cursor.getSequence(), cursor.getBookId(), horizon, page));
+        changes.sort(FEED_ORDER);
+
+        boolean hasMore = changes.size() > pageLimit;
+        if (hasMore) {
+            changes = changes.subList(0, pageLimit);
+        }
+        ChangeCursor next = cursor;
+        if (!changes.isEmpty()) {
+            BookChange last = changes.get(changes.size() - 1);
+            next = new ChangeCursor(last.getSequence(), last.getBookId());
+        }
+        return new ChangeFeed(changes, next.encode(), hasMore);
+    }
+
+    // Called by the write paths, inside their transactions
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long nextSequence() {
+        return changeSequence.next();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBookDeleted(Long id) {
+        bookTombstoneRepository.insertForBook(id, changeSequence.next(), LocalDateTime.now());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBooksDeleted(Collection<Long> ids) {
+        bookTombstoneRepository.insertForBooks(ids, changeSequence.next(), LocalDateTime.now());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAuthorBooksDeleted(Long authorId) {
+        bookTombstoneRepository.insertForAuthor(authorId, changeSequence.next(), LocalDateTime.now());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAllBooksDeleted() {
+        bookTombstoneRepository.insertForAll(changeSequence.next(), LocalDateTime.now());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAuthorBooksChanged(Long authorId) {
+        bookRepository.updateChangeSeqByAuthorId(authorId, changeSequence.next());
+    }
+
+    /**
+     * Numbers the books written before the change feed existed, or by code
+     * paths that bypass the services.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void assignMissingSequences() {
+        int assigned = bookRepository.assignMissingChangeSeq(changeSequence.next());
+        if (assigned > 0) {
+            logger.info("Assigned a change number to {} books", assigned);
+        }
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        if (limit < 1) {
+            throw new InvalidRequestException("Limit must be positive");
+        }
+        return Math.min(limit, maxLimit);
+    }
+}
@@ -0,0 +1,204 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.PurgeJob;
+import com.bookstore.event.CatalogEvent;
+import com.bookstore.event.UserEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs very large deletes in the background as a series of short
+ * transactions of {@code purge.chunk-size} rows each, so no single
+ * transaction holds locks on the whole table. Each chunk of books is
+ * published as it commits, and the whole job as a bulk change at the end.
+ */
+@Service
+public class PurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurgeService.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${purge.max-retained-jobs:100}")
+    private int maxRetainedJobs;
+
+    private final Map<String, PurgeJob> jobs = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "purge-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PurgeJob purgeAllBooks() {
+        return submit("books", true, job -> purge(job, "Book", null, null));
+    }
+
+    public PurgeJob purgeAllAuthors() {
+        // Books first, so each author chunk no longer cascades into an unbounded number of books
+        return submit("authors", true, job -> {
+            purge(job, "Book", null, null);
+            purge(job, "Author", null, null);
+        });
+    }
+
+    public PurgeJob purgeAuthor(Long authorId) {
+        Long count = entityManager.createQuery("select count(a) from Author a where a.id = :id", Long.class)
+                .setParameter("id", authorId)
+                .getSingleResult();
+        if (count == 0) {
+            throw new EntityNotFoundException("Author not found with id: " + authorId);
+        }
+        return submit("author " + authorId, true, job -> {
+            purge(job, "Book", "e.author.id = :authorId", authorId);
+            purge(job, "Author", "e.id = :authorId", authorId);
+        });
+    }
+
+    public PurgeJob purgeAllUsers() {
+        return submit("users", false, job -> purge(job, "User", null, null));
+    }
+
+    public PurgeJob getJob(String id) {
+        PurgeJob job = jobs.get(id);
+        if (job == null) {
+            throw new EntityNotFoundException("Purge job not found with id: " + id);
+        }
+        return job;
+    }
+
+    private PurgeJob submit(String target, boolean catalog, PurgeTask task) {
+        pruneFinishedJobs();
+
+        PurgeJob job = new PurgeJob(UUID.randomUUID().toString(), target);
+        jobs.put(job.getId(), job);
+        logger.info("Scheduling purge job {} for {}", job.getId(), target);
+        executor.execute(() -> {
+            RuntimeException failure = null;
+            try {
+                task.run(job);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            // Published before the job finishes, so a client that sees it finished gets ISBN checks
+            // against the rebuilt index
+            if (job.getDeleted() > 0) {
+                try {
+                    eventPublisher.publishEvent(catalog ? CatalogEvent.bulkChange() : UserEvent.allChanged());
+                } catch (RuntimeException e) {
+                    failure = failure != null ? failure : e;
+                }
+            }
+            if (failure == null) {
+                job.complete();
+                logger.info("Purge job {} deleted {} rows", job.getId(), job.getDeleted());
+            } else {
+                logger.error("Purge job {} failed after {} rows: {}", job.getId(), job.getDeleted(),
+                        failure.getMessage());
+                job.fail(failure.getMessage());
+            }
+        });
+        return job;
+    }
+
+    // Drops the jobs that finished longest ago, so a client polling a recent job still finds it
+    private void pruneFinishedJobs() {
+        int excess = jobs.size() + 1 - maxRetainedJobs;
+        if (excess <= 0) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(PurgeJob::isFinished)
+                .sorted(Comparator.comparing(PurgeJob::getFinishedAt))
+                .limit(excess)
+                .toList()
+                .forEach(job -> jobs.remove(job.getId()));
+    }
+
+    private void purge(PurgeJob job, String entity, String condition, Long authorId) {
+        String where = condition != null ? " where " + condition : "";
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        long remaining = transaction.execute(status -> {
+            TypedQuery<Long> count = entityManager.createQuery(
+                    "select count(e) from " + entity + " e" + where, Long.class);
+            if (authorId != null) {
+                count.setParameter("authorId", authorId);
+            }
+            return count.getSingleResult();
+        });
+        job.setTotal(job.getTotal() + remaining);
+
+        while (true) {
+            List<Long> ids = new ArrayList<>();
+            int deleted = transaction.execute(status -> {
+                TypedQuery<Long> select = entityManager.createQuery(
+                        "select e.id from " + entity + " e" + where + " order by e.id", Long.class);
+                if (authorId != null) {
+                    select.setParameter("authorId", authorId);
+                }
+                ids.addAll(select.setMaxResults(chunkSize).getResultList());
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                if (entity.equals("Book")) {
+                    changeFeedService.recordBooksDeleted(ids);
+                }
+                return entityManager.createQuery("delete from " + entity + " e where e.id in :ids")
+                        .setParameter("ids", ids)
+                        .executeUpdate();
+            });
+            if (deleted == 0) {
+                return;
+            }
+            job.addDeleted(deleted);
+            // Committed, so the ISBN index and the other views drop these books now rather than at the end
+            if (entity.equals("Book")) {
+                eventPublisher.publishEvent(CatalogEvent.booksDeleted(ids));
+            }
+            logger.debug("Purge job {} deleted {} of {} rows", job.getId(), job.getDeleted(), job.getTotal());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private interface PurgeTask {
+        void run(PurgeJob job);
+    }
+}
@@ -1,10 +1,14 @@
 package com.bookstore.service;
 
 import com.bookstore.dto.UserDto;
+import com.bookstore.event.UserEvent;
+import com.bookstore.model.Role;
 import com.bookstore.model.User;
 import com.bookstore.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -19,6 +23,9 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<UserDto> getAllUsers() {
         logger.info("Retrieving all users");
         return userRepository.findAll().stream()
@@ -33,17 +40,36 @@ public class UserService {
         return UserDto.fromEntity(user);
     }
 
+    /**
+     * Changes a user's role. Tokens issued before the change are no longer
+     * accepted, so the user signs in again to get one with the new role.
+     */
+    @Transactional
+    public UserDto changeRole(Long id, Role role) {
+        logger.info("Changing role of user with ID {} to {}", id, role);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + id));
+        if (user.getRole() != role) {
+            user.setRole(role);
+            user.revokeTokens();
+            eventPublisher.publishEvent(UserEvent.changed(id));
+        }
+        return UserDto.fromEntity(user);
+    }
+
     @Transactional
     public void deleteUser(Long id) {
         logger.info("Deleting user with ID: {}", id);
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(UserEvent.changed(id));
         logger.info("User deleted successfully with ID: {}", id);
     }
 
     @Transactional
     public void deleteAllUsers() {
         logger.info("Deleting all users");
-        userRepository.deleteAll();
+        userRepository.deleteAllInBatch();
+        eventPublisher.publishEvent(UserEvent.allChanged());
         logger.info("All users deleted successfully");
     }
 }
@@ -0,0 +1,333 @@
+package com.bookstore.stream;
+
+import com.bookstore.event.CatalogEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed {@link CatalogEvent}s to Server-Sent Events subscribers.
+ * Connections are parked in the servlet container's async support, so an idle
+ * subscriber holds no thread; a small pool of writers drains the subscribers
+ * that have something to send. Each subscriber has a buffer of
+ * {@code stream.buffer-size} events, and a consumer too slow to keep up
+ * either loses its oldest events or is disconnected, per
+ * {@code stream.overflow}. The last {@code stream.replay-size} events are
+ * kept so that a reconnecting client can resume from its Last-Event-ID.
+ */
+@Component
+public class CatalogStream implements MeterBinder {
+
+    public enum OverflowPolicy {
+        // Discard the oldest buffered events and tell the client how many it missed
+        DROP,
+        // Close the connection; the client reconnects and resumes from the replay buffer
+        DISCONNECT
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogStream.class);
+
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("").build();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${stream.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${stream.replay-size:1024}")
+    private int replaySize;
+
+    @Value("${stream.overflow:DISCONNECT}")
+    private OverflowPolicy overflow;
+
+    @Value("${stream.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${stream.heartbeat-interval:20s}")
+    private Duration heartbeatInterval;
+
+    @Value("${stream.reconnect-delay:3s}")
+    private Duration reconnectDelay;
+
+    @Value("${stream.writer-threads:4}")
+    private int writerThreads;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Guarded by this, together with the registration of new subscribers
+    private final Deque<StreamEvent> replay = new ArrayDeque<>();
+
+    // Seeded from the clock so that ids keep increasing across restarts, and
+    // ids handed out by an earlier run are recognized as too old to resume from
+    private final AtomicLong eventIds = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong overflowDisconnects = new AtomicLong();
+
+    private ExecutorService writers;
+    private ScheduledExecutorService heartbeats;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = heartbeatInterval.toMillis();
+        heartbeats.scheduleWithFixedDelay(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream. With a {@code lastEventId} the events after it are sent
+     * first; if they are no longer held, a {@code reset} event tells the
+     * client to resynchronize, for example from the book change feed.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::closed);
+        // Ending the response normally lets the client reconnect instead of getting a timeout error
+        emitter.onTimeout(() -> {
+            subscriber.closed();
+            emitter.complete();
+        });
+        emitter.onError(error -> subscriber.closed());
+
+        subscriber.enqueue(SseEmitter.event().reconnectTime(reconnectDelay.toMillis()).comment("connected").build());
+        synchronized (this) {
+            if (lastEventId != null) {
+                replayAfter(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        }
+        logger.debug("Catalog stream subscriber connected ({} open)", subscribers.size());
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            logger.error("Cannot serialize catalog event {}: {}", event.getType(), e.getMessage());
+            return;
+        }
+        // The frame is rendered once and shared by every subscriber
+        synchronized (this) {
+            long id = eventIds.incrementAndGet();
+            StreamEvent streamEvent = new StreamEvent(id, SseEmitter.event()
+                    .id(Long.toString(id))
+                    .name(event.getType().name())
+                    .data(data)
+                    .build());
+            replay.addLast(streamEvent);
+            if (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(streamEvent.frame);
+            }
+        }
+    }
+
+    private void replayAfter(Subscriber subscriber, String lastEventId) {
+        long after;
+        try {
+            after = Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            after = -1;
+        }
+        long latest = eventIds.get();
+        if (after == latest) {
+            return;
+        }
+        StreamEvent oldest = replay.peekFirst();
+        if (oldest == null || after < oldest.id - 1 || after > latest) {
+            // Carries the current id, so the client resumes from here once it has resynchronized
+            subscriber.enqueue(SseEmitter.event().id(Long.toString(latest)).name("reset").data("{}").build());
+            return;
+        }
+        for (StreamEvent event : replay) {
+            if (event.id > after) {
+                subscriber.enqueue(event.frame);
+            }
+        }
+    }
+
+    private void sendHeartbeats() {
+        // Keeps proxies from closing idle connections and finds clients that went away
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        writers.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("catalog.stream.subscribers", subscribers, Set::size)
+                .description("Open catalog event streams")
+                .register(registry);
+        FunctionCounter.builder("catalog.stream.dropped", droppedEvents, AtomicLong::get)
+                .description("Events dropped from the buffers of slow stream subscribers")
+                .register(registry);
+        FunctionCounter.builder("catalog.stream.overflow.disconnects", overflowDisconnects, AtomicLong::get)
+                .description("Stream subscribers disconnected because their buffer was full")
+                .register(registry);
+    }
+
+    private static class StreamEvent {
+        final long id;
+        final Set<DataWithMediaType> frame;
+
+        StreamEvent(long id, Set<DataWithMediaType> frame) {
+            this.id = id;
+            this.frame = frame;
+        }
+    }
+
+    /**
+     * One open stream. At most one writer drains it at a time, so frames go
+     * out in order and a blocked connection ties up a single writer.
+     */
+    private class Subscriber implements Runnable {
+        final SseEmitter emitter;
+
+        // All guarded by this
+        private final ArrayDeque<Set<DataWithMediaType>> buffer = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean closing;
+        private boolean closed;
+        private int dropped;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Live events, subject to the buffer bound
+        synchronized void offer(Set<DataWithMediaType> frame) {
+            if (closing || closed) {
+                return;
+            }
+            if (buffer.size() >= bufferSize) {
+                if (overflow == OverflowPolicy.DISCONNECT) {
+                    overflowDisconnects.incrementAndGet();
+                    buffer.clear();
+                    closing = true;
+                    subscribers.remove(this);
+                    schedule();
+                    return;
+                }
+                buffer.removeFirst();
+                dropped++;
+                droppedEvents.incrementAndGet();
+            }
+            buffer.addLast(frame);
+            schedule();
+        }
+
+        // Replayed and control frames, bounded by the replay buffer instead
+        synchronized void enqueue(Set<DataWithMediaType> frame) {
+            buffer.addLast(frame);
+            schedule();
+        }
+
+        synchronized void heartbeat() {
+            if (buffer.isEmpty() && !closing && !closed) {
+                buffer.addLast(HEARTBEAT);
+                schedule();
+            }
+        }
+
+        synchronized void closed() {
+            closed = true;
+            buffer.clear();
+            subscribers.remove(this);
+        }
+
+        private void schedule() {
+            if (!scheduled) {
+                scheduled = true;
+                writers.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Set<DataWithMediaType> frame;
+                int missed;
+                boolean complete;
+                synchronized (this) {
+                    complete = closing && !closed;
+                    frame = complete || closed ? null : buffer.pollFirst();
+                    if (frame == null && !complete) {
+                        scheduled = false;
+                        return;
+                    }
+                    missed = dropped;
+                    dropped = 0;
+                }
+                if (complete) {
+                    logger.debug("Disconnecting a catalog stream subscriber whose buffer is full");
+                    emitter.complete();
+                    synchronized (this) {
+                        scheduled = false;
+                    }
+                    return;
+                }
+                try {
+                    if (missed > 0) {
+                        emitter.send(SseEmitter.event().name("dropped").data("{\"count\":" + missed + "}"));
+                    }
+                    emitter.send(frame);
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away; the container reports the error to the emitter
+                    closed();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+-- One-off migration for databases whose books.author_id foreign key was
+-- created without ON DELETE CASCADE. Author deletes are set-based statements
+-- that rely on the database to remove the author's books.
+
+BEGIN;
+
+DO $$
+DECLARE
+    constraint_name text;
+BEGIN
+    FOR constraint_name IN
+        SELECT c.conname
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+        WHERE c.contype = 'f'
+          AND c.conrelid = 'books'::regclass
+          AND a.attname = 'author_id'
+    LOOP
+        EXECUTE format('ALTER TABLE books DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END $$;
+
+ALTER TABLE books
+    ADD CONSTRAINT fk_books_author FOREIGN KEY (author_id) REFERENCES authors (id) ON DELETE CASCADE;
+
+COMMIT;
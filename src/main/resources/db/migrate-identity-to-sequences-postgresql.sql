@@ -0,0 +1,25 @@
+-- One-off migration for databases created while ids were IDENTITY columns.
+-- Run it once against PostgreSQL before starting a version that uses the
+-- pooled-lo id sequences (see com.bookstore.model.Sequences).
+--
+-- With pooled-lo every sequence value is the first id of a block of 50, so
+-- the sequences simply have to start above the highest existing id.
+
+BEGIN;
+
+LOCK TABLE authors, books, users IN EXCLUSIVE MODE;
+
+CREATE SEQUENCE IF NOT EXISTS authors_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS books_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('authors_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM authors), false);
+SELECT setval('books_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM books), false);
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM users), false);
+
+-- Ids are always supplied by the application now
+ALTER TABLE authors ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE books ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+COMMIT;
@@ -0,0 +1,144 @@
+package com.bookstore.perf;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * A closed-loop HTTP load generator: each of {@code concurrency} virtual
+ * users sends a request, waits for the response, and sends the next one,
+ * cycling through the target URIs or requests. Latencies are recorded in an HdrHistogram
+ * once the warmup is over. Being closed-loop, it measures the service at the
+ * rate it can sustain rather than at a fixed arrival rate.
+ */
+public class LoadClient {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newCachedThreadPool())
+            .build();
+
+    private final IntFunction<HttpRequest> requests;
+
+    /**
+     * Sends authenticated GET requests to the targets in turn.
+     */
+    public LoadClient(List<URI> targets, String token) {
+        this(sequence -> HttpRequest.newBuilder(targets.get(sequence % targets.size()))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build());
+    }
+
+    /**
+     * @param requests builds the request with the given sequence number
+     */
+    public LoadClient(IntFunction<HttpRequest> requests) {
+        this.requests = requests;
+    }
+
+    public Result run(int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        Recorder recorder = new Recorder(TimeUnit.SECONDS.toNanos(60), 3);
+        LongAdder errors = new LongAdder();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        // One thread per user, blocking on its response, so that the client itself never caps the concurrency
+        ExecutorService users = Executors.newFixedThreadPool(concurrency);
+        for (int user = 0; user < concurrency; user++) {
+            int first = user;
+            users.execute(() -> loop(first, recorder, errors, measureFrom, end));
+        }
+        users.shutdown();
+        users.awaitTermination(warmup.plus(duration).toSeconds() + 60, TimeUnit.SECONDS);
+        Histogram histogram = recorder.getIntervalHistogram();
+        return new Result(concurrency, histogram, errors.sum(), duration);
+    }
+
+    private void loop(int sequence, Recorder recorder, LongAdder errors, long measureFrom, long end) {
+        long sent;
+        do {
+            HttpRequest request = requests.apply(sequence++);
+            sent = System.nanoTime();
+            boolean failed;
+            try {
+                failed = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+            } catch (IOException e) {
+                failed = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (sent >= measureFrom) {
+                if (failed) {
+                    errors.increment();
+                } else {
+                    recorder.recordValue(Math.min(System.nanoTime() - sent, TimeUnit.SECONDS.toNanos(60)));
+                }
+            }
+        } while (sent < end);
+    }
+
+    /**
+     * Prints a table of throughput and latency percentiles, one row per named result.
+     */
+    public static void print(Map<String, Result> results) {
+        System.out.printf("%-20s %12s %10s %10s %10s %10s %8s%n",
+                "", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (Map.Entry<String, Result> entry : results.entrySet()) {
+            Result result = entry.getValue();
+            System.out.printf("%-20s %12.1f %10.1f %10.1f %10.1f %10.1f %8d%n", entry.getKey(),
+                    result.getThroughput(), result.getPercentileMillis(50), result.getPercentileMillis(99),
+                    result.getPercentileMillis(99.9), result.getHistogram().getMaxValue() / 1_000_000.0,
+                    result.getErrors());
+        }
+    }
+
+    public static class Result {
+        private final int concurrency;
+        private final Histogram histogram;
+        private final long errors;
+        private final Duration duration;
+
+        Result(int concurrency, Histogram histogram, long errors, Duration duration) {
+            this.concurrency = concurrency;
+            this.histogram = histogram;
+            this.errors = errors;
+            this.duration = duration;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public Histogram getHistogram() {
+            return histogram;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getThroughput() {
+            return histogram.getTotalCount() / (duration.toMillis() / 1000.0);
+        }
+
+        public double getPercentileMillis(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1_000_000.0;
+        }
+    }
+}
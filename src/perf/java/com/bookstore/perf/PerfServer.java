@@ -0,0 +1,152 @@
+package com.bookstore.perf;
+
+import com.bookstore.BookStoreApplication;
+import com.bookstore.dto.ImportReport;
+import com.bookstore.service.BookImportService;
+import com.bookstore.service.CatalogFormat;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The application as the load tests run it: on a random port, with its own
+ * in-memory database, quiet logging, and the response cache and rate limiting
+ * off so that every request does the work being measured.
+ */
+public class PerfServer implements AutoCloseable {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ConfigurableApplicationContext context;
+    private final String baseUrl;
+
+    /**
+     * @param database name of the in-memory database, distinct per run
+     * @param args further settings, as {@code --name=value}, taking precedence over the defaults here
+     */
+    public PerfServer(String database, String... args) {
+        this(database, List.of(), args);
+    }
+
+    /**
+     * @param database name of the in-memory database, distinct per run
+     * @param sources further beans, such as filters, to start the application with
+     * @param args further settings, as {@code --name=value}, taking precedence over the defaults here
+     */
+    public PerfServer(String database, List<Class<?>> sources, String... args) {
+        Map<String, String> settings = new LinkedHashMap<>();
+        settings.put("server.port", "0");
+        settings.put("spring.datasource.url", "jdbc:h2:mem:" + database);
+        settings.put("reactive.r2dbc.url", "r2dbc:h2:mem:///" + database);
+        settings.put("spring.jpa.show-sql", "false");
+        settings.put("response-cache.enabled", "false");
+        settings.put("rate-limit.enabled", "false");
+        for (String logger : List.of("root", "com.bookstore", "org.springframework", "org.springframework.web",
+                "org.springframework.security", "org.hibernate")) {
+            settings.put("logging.level." + logger, "WARN");
+        }
+        // A repeated argument would be read as a list, so the given ones replace the defaults
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            settings.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        // Arguments take precedence over application.yml
+        String[] arguments = settings.entrySet().stream()
+                .map(setting -> "--" + setting.getKey() + "=" + setting.getValue())
+                .toArray(String[]::new);
+        context = new SpringApplicationBuilder(BookStoreApplication.class)
+                .sources(sources.toArray(Class<?>[]::new))
+                .run(arguments);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    public ConfigurableApplicationContext getContext() {
+        return context;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    /**
+     * Adds {@code books} books, spread over {@code authors} authors, through the import service.
+     */
+    public void seed(int books, int authors) throws IOException {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < books; i++) {
+            ndjson.append("{\"title\":\"Book ").append(i)
+                    .append("\",\"price\":").append(5 + i % 50).append(".99")
+                    .append(",\"description\":\"Description of book ").append(i).append(", ")
+                    .append("long enough to make the listing a realistic size\"")
+                    .append(",\"authorName\":\"Author ").append(i % authors).append("\"}\n");
+        }
+        InputStream in = new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8));
+        ImportReport report = context.getBean(BookImportService.class).importBooks(CatalogFormat.NDJSON, in);
+        System.out.printf("Seeded %d books%n", report.getImported());
+    }
+
+    /**
+     * @return a token for the seeded user
+     */
+    public String signIn() throws Exception {
+        return signIn("user", "user123");
+    }
+
+    /**
+     * @return a token for one of the seeded users
+     */
+    public String signIn(String username, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/auth/signin"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = TOKEN.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Sign-in failed: " + body);
+        }
+        return matcher.group(1);
+    }
+
+    /**
+     * @return the ids in a listing such as {@code /api/books}
+     */
+    public List<String> ids(String path, String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .header("Authorization", "Bearer " + token)
+                .build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        List<String> ids = new ArrayList<>();
+        Matcher matcher = ID.matcher(body);
+        while (matcher.find()) {
+            ids.add(matcher.group(1));
+        }
+        return ids;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,178 @@
+package com.bookstore.perf;
+
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.IntFunction;
+
+/**
+ * The performance regression test behind {@code gradle perfTest}. Seeds the
+ * catalog, then drives book listings, single books, sign-ins and admin
+ * writes over HTTP with the {@link LoadClient}, one scenario at a time, and
+ * records each scenario's latencies and {@link RequestCosts}. Every scenario
+ * is checked against its budgets in {@code perf-budgets.properties}:
+ * <ul>
+ *     <li>{@code <scenario>.p99-ms}: 99th percentile latency</li>
+ *     <li>{@code <scenario>.allocated-bytes}: mean bytes allocated per request</li>
+ *     <li>{@code <scenario>.sql-statements}: most SQL statements in one request</li>
+ * </ul>
+ * Any failed request, or any budget exceeded, fails the run. Settings are
+ * system properties:
+ * <ul>
+ *     <li>{@code perf.books} (20000), {@code perf.authors} (200): seeded catalog</li>
+ *     <li>{@code perf.concurrency} (8): closed-loop clients per scenario</li>
+ *     <li>{@code perf.warmup-seconds} (5), {@code perf.duration-seconds} (15)</li>
+ *     <li>{@code perf.budgets}: a budgets file to use instead of the one on the classpath</li>
+ *     <li>{@code perf.report}: where to write the measured values, in the format of the budgets</li>
+ * </ul>
+ */
+public class PerfTest {
+
+    public static void main(String[] args) throws Exception {
+        int books = Integer.getInteger("perf.books", 20_000);
+        int authors = Integer.getInteger("perf.authors", 200);
+        int concurrency = Integer.getInteger("perf.concurrency", 8);
+        Duration warmup = Duration.ofSeconds(Long.getLong("perf.warmup-seconds", 5));
+        Duration duration = Duration.ofSeconds(Long.getLong("perf.duration-seconds", 15));
+        Properties budgets = loadBudgets(System.getProperty("perf.budgets"));
+
+        Map<String, LoadClient.Result> results = new LinkedHashMap<>();
+        Map<String, RequestCosts.Recording> costs = new LinkedHashMap<>();
+        try (PerfServer server = new PerfServer("perf-test", List.of(RequestCosts.Filter.class),
+                "--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                        + RequestCosts.StatementCounter.class.getName())) {
+            server.seed(books, authors);
+            String token = server.signIn();
+            String adminToken = server.signIn("admin", "admin123");
+            List<String> bookIds = server.ids("/api/books", token);
+            List<String> authorIds = server.ids("/api/authors", token);
+            List<String> someBookIds = bookIds.subList(0, Math.min(1000, bookIds.size()));
+
+            // Reads first, so that the catalog they see is the seeded one
+            Map<String, IntFunction<HttpRequest>> scenarios = new LinkedHashMap<>();
+            scenarios.put("books", sequence -> get(server.uri("/api/books"), token));
+            scenarios.put("book", sequence ->
+                    get(server.uri("/api/books/" + someBookIds.get(sequence % someBookIds.size())), token));
+            scenarios.put("signin", sequence -> json(server.uri("/api/auth/signin"), null)
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"user\",\"password\":\"user123\"}"))
+                    .build());
+            scenarios.put("book-create", sequence -> json(server.uri("/api/books"), adminToken)
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            book("New book " + sequence, authorIds.get(sequence % authorIds.size()))))
+                    .build());
+            scenarios.put("book-update", sequence -> {
+                String id = someBookIds.get(sequence % someBookIds.size());
+                return json(server.uri("/api/books/" + id), adminToken)
+                        .PUT(HttpRequest.BodyPublishers.ofString(
+                                book("Book " + id + ", revised " + sequence, authorIds.get(0))))
+                        .build();
+            });
+
+            for (Map.Entry<String, IntFunction<HttpRequest>> scenario : scenarios.entrySet()) {
+                System.out.printf("Running %s: %d clients for %ds after %ds of warmup%n", scenario.getKey(),
+                        concurrency, duration.toSeconds(), warmup.toSeconds());
+                LoadClient client = new LoadClient(scenario.getValue());
+                client.run(concurrency, Duration.ZERO, warmup);
+                RequestCosts.start();
+                results.put(scenario.getKey(), client.run(concurrency, Duration.ZERO, duration));
+                costs.put(scenario.getKey(), RequestCosts.stop());
+            }
+        }
+
+        Properties measured = new Properties();
+        for (String scenario : results.keySet()) {
+            measured.setProperty(scenario + ".p99-ms",
+                    String.format("%.1f", results.get(scenario).getPercentileMillis(99)));
+            measured.setProperty(scenario + ".allocated-bytes",
+                    String.valueOf(Math.round(costs.get(scenario).getAllocatedBytesPerRequest())));
+            measured.setProperty(scenario + ".sql-statements", String.valueOf(costs.get(scenario).getMaxStatements()));
+        }
+
+        System.out.printf("%n%d books, %d authors, %d clients%n", books, authors, concurrency);
+        LoadClient.print(results);
+        System.out.printf("%n%-20s %14s %12s %12s%n", "", "KB/request", "SQL/request", "SQL max");
+        for (Map.Entry<String, RequestCosts.Recording> entry : costs.entrySet()) {
+            RequestCosts.Recording recording = entry.getValue();
+            System.out.printf("%-20s %14.1f %12.1f %12d%n", entry.getKey(),
+                    recording.getAllocatedBytesPerRequest() / 1024, recording.getStatementsPerRequest(),
+                    recording.getMaxStatements());
+        }
+        String report = System.getProperty("perf.report");
+        if (report != null) {
+            writeReport(Path.of(report), measured);
+        }
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, LoadClient.Result> entry : results.entrySet()) {
+            if (entry.getValue().getErrors() > 0) {
+                failures.add(entry.getKey() + ": " + entry.getValue().getErrors() + " failed requests");
+            }
+        }
+        for (String key : measured.stringPropertyNames().stream().sorted().toList()) {
+            String budget = budgets.getProperty(key);
+            if (budget != null && Double.parseDouble(measured.getProperty(key)) > Double.parseDouble(budget)) {
+                failures.add(key + " is " + measured.getProperty(key) + ", over the budget of " + budget);
+            }
+        }
+        if (!failures.isEmpty()) {
+            System.out.printf("%nPerformance budgets exceeded:%n");
+            failures.forEach(failure -> System.out.println("  " + failure));
+            System.exit(1);
+        }
+        System.out.printf("%nAll scenarios within budget%n");
+    }
+
+    private static HttpRequest get(URI uri, String token) {
+        return HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest.Builder json(URI uri, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30));
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+
+    private static String book(String title, String authorId) {
+        return "{\"title\":\"" + title + "\",\"price\":12.99,\"description\":\"Written under load\",\"authorId\":"
+                + authorId + "}";
+    }
+
+    private static Properties loadBudgets(String file) throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream in = file != null ? new FileInputStream(file)
+                : PerfTest.class.getResourceAsStream("/perf-budgets.properties")) {
+            if (in == null) {
+                throw new IllegalStateException("perf-budgets.properties is not on the classpath");
+            }
+            budgets.load(in);
+        }
+        return budgets;
+    }
+
+    private static void writeReport(Path file, Properties measured) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (Writer out = new FileWriter(file.toFile())) {
+            for (String key : measured.stringPropertyNames().stream().sorted().toList()) {
+                out.write(key + "=" + measured.getProperty(key) + System.lineSeparator());
+            }
+        }
+        System.out.println("Measured values written to " + file);
+    }
+}
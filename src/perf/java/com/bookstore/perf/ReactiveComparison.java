@@ -0,0 +1,204 @@
+package com.bookstore.perf;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compares the Spring MVC API with the reactive one under {@code /api/reactive}
+ * on a seeded catalog. First, each serves single books and books by author to
+ * closed-loop clients. Then slow clients read the full book listing a little
+ * at a time, while fast clients keep reading single books through the same
+ * API: the table shows how many Tomcat threads the slow readers hold and how
+ * the fast clients fare meanwhile. Settings are system properties:
+ * <ul>
+ *     <li>{@code perf.books} (20000), {@code perf.authors} (200): seeded catalog</li>
+ *     <li>{@code perf.concurrency} (32): closed-loop clients</li>
+ *     <li>{@code perf.slow-readers} (50): clients reading the full listing slowly</li>
+ *     <li>{@code perf.slow-read-bytes} (4096): bytes each slow reader takes per 100 ms</li>
+ *     <li>{@code perf.tomcat-threads} (40): Tomcat's pool</li>
+ *     <li>{@code perf.warmup-seconds} (5), {@code perf.duration-seconds} (15)</li>
+ * </ul>
+ */
+public class ReactiveComparison {
+
+    private static final Map<String, String> APIS = Map.of("mvc", "/api", "reactive", "/api/reactive");
+
+    public static void main(String[] args) throws Exception {
+        int books = Integer.getInteger("perf.books", 20_000);
+        int authors = Integer.getInteger("perf.authors", 200);
+        int concurrency = Integer.getInteger("perf.concurrency", 32);
+        int slowReaders = Integer.getInteger("perf.slow-readers", 50);
+        int slowReadBytes = Integer.getInteger("perf.slow-read-bytes", 4096);
+        int tomcatThreads = Integer.getInteger("perf.tomcat-threads", 40);
+        Duration warmup = Duration.ofSeconds(Long.getLong("perf.warmup-seconds", 5));
+        Duration duration = Duration.ofSeconds(Long.getLong("perf.duration-seconds", 15));
+
+        try (PerfServer server = new PerfServer("reactive-comparison",
+                "--server.tomcat.threads.max=" + tomcatThreads,
+                // Publishes tomcat.threads.busy
+                "--server.tomcat.mbeanregistry.enabled=true",
+                // Slow readers are cut off at the end of their phase
+                "--logging.level.com.bookstore.exception=OFF",
+                "--logging.level.org.apache.catalina=OFF")) {
+            server.seed(books, authors);
+            String token = server.signIn();
+            List<String> bookIds = server.ids("/api/books", token);
+            List<String> authorIds = server.ids("/api/authors", token);
+
+            Map<String, LoadClient.Result> results = new LinkedHashMap<>();
+            Map<String, ThreadUsage> usage = new LinkedHashMap<>();
+            for (String api : List.of("mvc", "reactive")) {
+                String prefix = APIS.get(api);
+                List<URI> items = targets(server, prefix + "/books/",
+                        bookIds.subList(0, Math.min(1000, bookIds.size())));
+                List<URI> byAuthor = targets(server, prefix + "/books/author/", authorIds);
+
+                System.out.printf("Running %s: %d clients on single books, then books by author%n", api, concurrency);
+                results.put(api + " book", new LoadClient(items, token).run(concurrency, warmup, duration));
+                results.put(api + " by author", new LoadClient(byAuthor, token).run(concurrency, warmup, duration));
+
+                System.out.printf("Running %s: %d slow readers on the full listing, %d clients on single books%n",
+                        api, slowReaders, concurrency);
+                SlowReaders readers = new SlowReaders(server, prefix + "/books", token, slowReaders, slowReadBytes);
+                ThreadUsage threads = new ThreadUsage(server.getContext().getBean(MeterRegistry.class));
+                readers.start();
+                threads.start();
+                results.put(api + " book, slow", new LoadClient(items, token).run(concurrency, warmup, duration));
+                threads.stop();
+                readers.stop();
+                usage.put(api, threads);
+            }
+
+            System.out.printf("%n%d books, %d authors, %d clients, %d Tomcat threads%n",
+                    books, authors, concurrency, tomcatThreads);
+            LoadClient.print(results);
+            System.out.printf("%nWith %d slow readers of the full listing%n", slowReaders);
+            System.out.printf("%-20s %16s %16s%n", "", "busy threads avg", "busy threads max");
+            for (Map.Entry<String, ThreadUsage> entry : usage.entrySet()) {
+                System.out.printf("%-20s %16.1f %16d%n", entry.getKey(), entry.getValue().average(),
+                        entry.getValue().max);
+            }
+        }
+    }
+
+    private static List<URI> targets(PerfServer server, String prefix, List<String> ids) {
+        List<URI> targets = new ArrayList<>();
+        for (String id : ids) {
+            targets.add(server.uri(prefix + id));
+        }
+        return targets;
+    }
+
+    /**
+     * Clients that request a path and then read its response a few kilobytes
+     * at a time, through a small receive buffer, until stopped.
+     */
+    private static class SlowReaders {
+        private final PerfServer server;
+        private final String request;
+        private final int readers;
+        private final int bytesPerRead;
+        private final AtomicBoolean running = new AtomicBoolean(true);
+        private final List<Thread> threads = new ArrayList<>();
+
+        SlowReaders(PerfServer server, String path, String token, int readers, int bytesPerRead) {
+            this.server = server;
+            this.request = "GET " + path + " HTTP/1.1\r\nHost: localhost\r\nAuthorization: Bearer " + token
+                    + "\r\nConnection: close\r\n\r\n";
+            this.readers = readers;
+            this.bytesPerRead = bytesPerRead;
+        }
+
+        void start() {
+            URI base = URI.create(server.getBaseUrl());
+            for (int i = 0; i < readers; i++) {
+                Thread thread = new Thread(() -> read(base), "slow-reader-" + i);
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+        }
+
+        private void read(URI base) {
+            try (Socket socket = new Socket()) {
+                socket.setReceiveBufferSize(bytesPerRead);
+                socket.connect(new InetSocketAddress(base.getHost(), base.getPort()));
+                OutputStream out = socket.getOutputStream();
+                out.write(request.getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                InputStream in = socket.getInputStream();
+                byte[] buffer = new byte[bytesPerRead];
+                while (running.get() && in.read(buffer) >= 0) {
+                    Thread.sleep(100);
+                }
+            } catch (IOException e) {
+                // The server gave up on the connection
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void stop() throws InterruptedException {
+            running.set(false);
+            for (Thread thread : threads) {
+                thread.join(5000);
+            }
+        }
+    }
+
+    /**
+     * Samples Tomcat's busy threads every 100 ms.
+     */
+    private static class ThreadUsage {
+        private final Gauge busy;
+        private final AtomicBoolean running = new AtomicBoolean(true);
+        private Thread sampler;
+        private long samples;
+        private long sum;
+        private long max;
+
+        ThreadUsage(MeterRegistry registry) {
+            busy = registry.get("tomcat.threads.busy").gauge();
+        }
+
+        void start() {
+            sampler = new Thread(() -> {
+                while (running.get()) {
+                    long value = (long) busy.value();
+                    samples++;
+                    sum += value;
+                    max = Math.max(max, value);
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "thread-usage");
+            sampler.start();
+        }
+
+        void stop() throws InterruptedException {
+            running.set(false);
+            sampler.join();
+        }
+
+        double average() {
+            return samples == 0 ? 0 : (double) sum / samples;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.bookstore.perf;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What each request costs the server: the bytes allocated by the thread that
+ * serves it, and the SQL statements Hibernate prepares for it. {@link Filter}
+ * goes first in the filter chain and {@link StatementCounter} is Hibernate's
+ * statement inspector. Only the serving thread is seen, so work handed to
+ * other threads, such as password hashing, is not counted.
+ */
+public class RequestCosts {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final ThreadLocal<long[]> STATEMENTS = new ThreadLocal<>();
+
+    private static volatile Recording recording;
+
+    private RequestCosts() {
+    }
+
+    /**
+     * Starts recording the requests that begin from now on.
+     */
+    public static void start() {
+        recording = new Recording();
+    }
+
+    /**
+     * @return the costs of the requests since {@link #start()}
+     */
+    public static Recording stop() {
+        Recording stopped = recording;
+        recording = null;
+        return stopped;
+    }
+
+    public static class Filter extends OncePerRequestFilter implements Ordered {
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                FilterChain chain) throws ServletException, IOException {
+            Recording current = recording;
+            if (current == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+            long[] statements = new long[1];
+            STATEMENTS.set(statements);
+            long thread = Thread.currentThread().threadId();
+            long allocatedBefore = THREADS.getThreadAllocatedBytes(thread);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                current.record(THREADS.getThreadAllocatedBytes(thread) - allocatedBefore, statements[0]);
+                STATEMENTS.remove();
+            }
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+
+    public static class StatementCounter implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            long[] statements = STATEMENTS.get();
+            if (statements != null) {
+                statements[0]++;
+            }
+            return sql;
+        }
+    }
+
+    public static class Recording {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+
+        void record(long allocated, long statementCount) {
+            requests.increment();
+            allocatedBytes.add(allocated);
+            statements.add(statementCount);
+            maxStatements.accumulate(statementCount);
+        }
+
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        public double getAllocatedBytesPerRequest() {
+            return requests.sum() == 0 ? 0 : (double) allocatedBytes.sum() / requests.sum();
+        }
+
+        public double getStatementsPerRequest() {
+            return requests.sum() == 0 ? 0 : (double) statements.sum() / requests.sum();
+        }
+
+        public long getMaxStatements() {
+            return maxStatements.get();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.bookstore.perf;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Delays every statement Hibernate prepares, standing in for a slow or
+ * distant database. The connection is held while waiting, as it would be
+ * while the database works. Off until a delay is set.
+ */
+public class SlowStatementInspector implements StatementInspector {
+
+    private static volatile long delayMillis;
+
+    public static void setDelayMillis(long delayMillis) {
+        SlowStatementInspector.delayMillis = delayMillis;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        long delay = delayMillis;
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return sql;
+    }
+}
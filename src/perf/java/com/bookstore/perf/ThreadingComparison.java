@@ -0,0 +1,71 @@
+package com.bookstore.perf;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts the application with platform request threads, then with virtual
+ * ones, delays every SQL statement to simulate a slow database, and drives
+ * book and author reads with the {@link LoadClient} at high concurrency.
+ * Caches and rate limiting are off so every request reaches the database.
+ * Prints throughput and latency percentiles for each mode. Settings are
+ * system properties:
+ * <ul>
+ *     <li>{@code perf.concurrency} (800): concurrent clients</li>
+ *     <li>{@code perf.statement-latency-ms} (20): delay per statement</li>
+ *     <li>{@code perf.tomcat-threads} (200): Tomcat's pool in platform mode</li>
+ *     <li>{@code perf.db-pool-size} (400): connections in both modes</li>
+ *     <li>{@code perf.warmup-seconds} (10), {@code perf.duration-seconds} (30)</li>
+ * </ul>
+ */
+public class ThreadingComparison {
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("perf.concurrency", 800);
+        long statementLatency = Long.getLong("perf.statement-latency-ms", 20);
+        int tomcatThreads = Integer.getInteger("perf.tomcat-threads", 200);
+        int dbPoolSize = Integer.getInteger("perf.db-pool-size", 400);
+        Duration warmup = Duration.ofSeconds(Long.getLong("perf.warmup-seconds", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("perf.duration-seconds", 30));
+
+        Map<String, LoadClient.Result> results = new LinkedHashMap<>();
+        results.put("platform", run(false, concurrency, statementLatency, tomcatThreads, dbPoolSize, warmup, duration));
+        results.put("virtual", run(true, concurrency, statementLatency, tomcatThreads, dbPoolSize, warmup, duration));
+
+        System.out.printf("%nConcurrency %d, %d ms per statement, %d Tomcat threads, %d connections%n",
+                concurrency, statementLatency, tomcatThreads, dbPoolSize);
+        LoadClient.print(results);
+    }
+
+    private static LoadClient.Result run(boolean virtualThreads, int concurrency, long statementLatency,
+            int tomcatThreads, int dbPoolSize, Duration warmup, Duration duration) throws Exception {
+        SlowStatementInspector.setDelayMillis(0);
+        try (PerfServer server = new PerfServer("threading-" + virtualThreads,
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--server.tomcat.threads.max=" + tomcatThreads,
+                "--spring.datasource.hikari.maximum-pool-size=" + dbPoolSize,
+                "--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                        + SlowStatementInspector.class.getName(),
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=false")) {
+            String token = server.signIn();
+            List<URI> targets = new ArrayList<>();
+            for (String resource : List.of("/api/books", "/api/authors")) {
+                for (String id : server.ids(resource, token)) {
+                    targets.add(server.uri(resource + "/" + id));
+                }
+            }
+
+            SlowStatementInspector.setDelayMillis(statementLatency);
+            System.out.printf("Running %s threads: %d clients for %ds after %ds of warmup%n",
+                    virtualThreads ? "virtual" : "platform", concurrency, duration.toSeconds(), warmup.toSeconds());
+            return new LoadClient(targets, token).run(concurrency, warmup, duration);
+        } finally {
+            SlowStatementInspector.setDelayMillis(0);
+        }
+    }
+}
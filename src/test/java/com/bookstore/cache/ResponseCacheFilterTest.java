@@ -0,0 +1,140 @@
+package com.bookstore.cache;
+
+import com.bookstore.dto.AuthorDto;
+import com.bookstore.dto.BookDto;
+import com.bookstore.service.AuthorService;
+import com.bookstore.service.BookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+public class ResponseCacheFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Test
+    public void testHit_IdentityAndGzipVariants() throws Exception {
+        AuthorDto author = authorService.createAuthor(new AuthorDto(null, "Cache Variants", "Biography"));
+        for (int i = 0; i < 5; i++) {
+            createBook(author, "x".repeat(200));
+        }
+        String uri = "/api/books/author/" + author.getId();
+
+        byte[] body = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Cache", "MISS"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        mockMvc.perform(get(uri))
+                .andExpect(header().string("X-Cache", "HIT"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(body));
+
+        MvcResult gzip = mockMvc.perform(get(uri).header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip"))
+                .andExpect(header().string("X-Cache", "HIT"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+        byte[] compressed = gzip.getResponse().getContentAsByteArray();
+        assertTrue(compressed.length < body.length);
+        assertArrayEquals(body, gunzip(compressed));
+
+        // Refused with a zero quality
+        mockMvc.perform(get(uri).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(body));
+    }
+
+    @Test
+    public void testHit_SmallBodyNotCompressed() throws Exception {
+        AuthorDto author = authorService.createAuthor(new AuthorDto(null, "Cache Small", "Short"));
+        String uri = "/api/authors/" + author.getId();
+
+        mockMvc.perform(get(uri)).andExpect(header().string("X-Cache", "MISS"));
+
+        mockMvc.perform(get(uri).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(header().string("X-Cache", "HIT"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testAuthorRename_EvictsBooksNamingTheAuthor() throws Exception {
+        AuthorDto renamed = authorService.createAuthor(new AuthorDto(null, "Cache Before", "Biography"));
+        AuthorDto other = authorService.createAuthor(new AuthorDto(null, "Cache Other", "Biography"));
+        String renamedBook = "/api/books/" + createBook(renamed, "Description").getId();
+        String otherBook = "/api/books/" + createBook(other, "Description").getId();
+        mockMvc.perform(get(renamedBook)).andExpect(header().string("X-Cache", "MISS"));
+        mockMvc.perform(get(otherBook)).andExpect(header().string("X-Cache", "MISS"));
+
+        authorService.updateAuthor(renamed.getId(), new AuthorDto(null, "Cache After", "Biography"));
+
+        MvcResult result = mockMvc.perform(get(renamedBook))
+                .andExpect(header().string("X-Cache", "MISS"))
+                .andReturn();
+        assertTrue(result.getResponse().getContentAsString().contains("Cache After"));
+        mockMvc.perform(get(otherBook)).andExpect(header().string("X-Cache", "HIT"));
+    }
+
+    @Test
+    public void testPagedHit_NextLinkIgnoresForgedHost() throws Exception {
+        AuthorDto author = authorService.createAuthor(new AuthorDto(null, "Cache Pages", "Biography"));
+        createBook(author, "Description");
+        createBook(author, "Description");
+        String uri = "/api/books/author/" + author.getId() + "?limit=1";
+
+        String rendered = mockMvc.perform(get(uri).header(HttpHeaders.HOST, "attacker.example"))
+                .andExpect(header().string("X-Cache", "MISS"))
+                .andReturn().getResponse().getContentAsString();
+        String cached = mockMvc.perform(get(uri))
+                .andExpect(header().string("X-Cache", "HIT"))
+                .andExpect(jsonPath("$.next").value(startsWith("/api/books/author/" + author.getId() + "?")))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(rendered, cached);
+        assertFalse(cached.contains("attacker.example"), cached);
+    }
+
+    private BookDto createBook(AuthorDto author, String description) {
+        return bookService.createBook(new BookDto(null, "Cached book", null, new BigDecimal("10.00"), description,
+                author.getId(), null));
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.bookstore.cache;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.event.CatalogEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ResponseCacheTest {
+
+    private ResponseCache responseCache;
+
+    @BeforeEach
+    public void setup() {
+        responseCache = new ResponseCache();
+        ReflectionTestUtils.setField(responseCache, "maxSize", DataSize.ofMegabytes(1));
+        responseCache.init();
+    }
+
+    @Test
+    public void testInvalidate_OnlyTaggedEntries() {
+        put("/api/books", ResponseCache.BOOKS);
+        put("/api/books/1", ResponseCache.book(1));
+        put("/api/books/2", ResponseCache.book(2), ResponseCache.authorName(5));
+        put("/api/authors/5", ResponseCache.author(5));
+
+        responseCache.invalidate(Set.of(ResponseCache.authorName(5)));
+
+        assertNull(responseCache.get("/api/books/2"));
+        assertNotNull(responseCache.get("/api/books"));
+        assertNotNull(responseCache.get("/api/books/1"));
+        assertNotNull(responseCache.get("/api/authors/5"));
+    }
+
+    @Test
+    public void testOnCatalogEvent() {
+        put("/api/books", ResponseCache.BOOKS);
+        put("/api/books/1", ResponseCache.book(1));
+        put("/api/books/2", ResponseCache.book(2));
+        put("/api/books/author/7", ResponseCache.authorBooks(7));
+        put("/api/books/author/8", ResponseCache.authorBooks(8));
+        put("/api/authors", ResponseCache.AUTHORS);
+
+        // Moved from author 7 to author 8
+        responseCache.onCatalogEvent(CatalogEvent.bookUpdated(
+                new BookDto(1L, "Title", null, null, null, 8L, "Author 8"), 7L));
+
+        assertNull(responseCache.get("/api/books"));
+        assertNull(responseCache.get("/api/books/1"));
+        assertNull(responseCache.get("/api/books/author/7"));
+        assertNull(responseCache.get("/api/books/author/8"));
+        assertNotNull(responseCache.get("/api/books/2"));
+        assertNotNull(responseCache.get("/api/authors"));
+
+        responseCache.onCatalogEvent(CatalogEvent.bulkChange());
+        assertNull(responseCache.get("/api/books/2"));
+        assertNull(responseCache.get("/api/authors"));
+    }
+
+    @Test
+    public void testPut_RenderedBeforeInvalidationNotStored() {
+        long renderedAt = responseCache.generation();
+        responseCache.invalidate(Set.of(ResponseCache.book(3)));
+
+        responseCache.put("/api/books/1", response(ResponseCache.book(1)), renderedAt);
+        assertNull(responseCache.get("/api/books/1"));
+
+        responseCache.put("/api/books/1", response(ResponseCache.book(1)), responseCache.generation());
+        assertNotNull(responseCache.get("/api/books/1"));
+    }
+
+    @Test
+    public void testStoredAgain_StaysLinked() {
+        put("/api/books/1", ResponseCache.book(1));
+        responseCache.invalidate(Set.of(ResponseCache.book(1)));
+        assertNull(responseCache.get("/api/books/1"));
+
+        // Rendered again after the eviction, and evicted again by the next change
+        put("/api/books/1", ResponseCache.book(1));
+        responseCache.invalidate(Set.of(ResponseCache.book(1)));
+        assertNull(responseCache.get("/api/books/1"));
+    }
+
+    @Test
+    public void testReplaced_KeepsOnlyNewTags() {
+        put("/api/books/1", ResponseCache.book(1), ResponseCache.authorName(5));
+        CachedResponse replacement = put("/api/books/1", ResponseCache.book(1), ResponseCache.authorName(6));
+
+        responseCache.invalidate(Set.of(ResponseCache.authorName(5)));
+        assertSame(replacement, responseCache.get("/api/books/1"));
+
+        responseCache.invalidate(Set.of(ResponseCache.authorName(6)));
+        assertNull(responseCache.get("/api/books/1"));
+    }
+
+    private CachedResponse put(String key, String... tags) {
+        CachedResponse response = response(tags);
+        responseCache.put(key, response, responseCache.generation());
+        return response;
+    }
+
+    private static CachedResponse response(String... tags) {
+        return new CachedResponse("application/json", "{}".getBytes(StandardCharsets.UTF_8), null, null, -1,
+                Set.of(tags));
+    }
+}
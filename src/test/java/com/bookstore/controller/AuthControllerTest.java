@@ -14,11 +14,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -55,12 +59,16 @@ public class AuthControllerTest {
                 "test@example.com",
                 "ROLE_USER");
 
-        when(authService.authenticateUser(any(LoginRequest.class))).thenReturn(jwtResponse);
+        when(authService.authenticateUser(any(LoginRequest.class))).thenReturn(CompletableFuture.completedFuture(jwtResponse));
 
         // Act & Assert
-        mockMvc.perform(post("/api/auth/signin")
+        MvcResult result = mockMvc.perform(post("/api/auth/signin")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").value("testToken123"))
                 .andExpect(jsonPath("$.username").value("testuser"))
@@ -78,12 +86,16 @@ public class AuthControllerTest {
 
         MessageResponse successResponse = new MessageResponse("User registered successfully!");
 
-        when(authService.registerUser(any(SignupRequest.class))).thenReturn(successResponse);
+        when(authService.registerUser(any(SignupRequest.class))).thenReturn(CompletableFuture.completedFuture(successResponse));
 
         // Act & Assert
-        mockMvc.perform(post("/api/auth/signup")
+        MvcResult result = mockMvc.perform(post("/api/auth/signup")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(signupRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value("User registered successfully!"));
     }
@@ -98,12 +110,16 @@ public class AuthControllerTest {
 
         MessageResponse errorResponse = new MessageResponse("Error: Username is already taken!");
 
-        when(authService.registerUser(any(SignupRequest.class))).thenReturn(errorResponse);
+        when(authService.registerUser(any(SignupRequest.class))).thenReturn(CompletableFuture.completedFuture(errorResponse));
 
         // Act & Assert
-        mockMvc.perform(post("/api/auth/signup")
+        MvcResult result = mockMvc.perform(post("/api/auth/signup")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(signupRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Error: Username is already taken!"));
     }
@@ -0,0 +1,147 @@
+package com.bookstore.controller;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.model.Author;
+import com.bookstore.model.Book;
+import com.bookstore.repository.AuthorRepository;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.service.AuthorService;
+import com.bookstore.service.BookService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the catalog read endpoints against N+1 regressions by counting the
+ * JDBC statements Hibernate prepares while serving each request.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@WithMockUser
+public class CatalogQueryCountTest {
+
+    private static final long MAX_STATEMENTS_PER_REQUEST = 1;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Several distinct authors so that a lazy author fetch would show up as extra statements
+        if (authorRepository.count() < 10) {
+            for (int i = 0; i < 10; i++) {
+                Author author = authorRepository.save(new Author("Author " + i, "Biography " + i));
+                Book book = new Book("Title " + i, "978000000000" + i, new BigDecimal("10.00"), "Description " + i);
+                book.setAuthor(author);
+                bookRepository.save(book);
+            }
+        }
+    }
+
+    @Test
+    public void testGetAllBooks() throws Exception {
+        assertStatementBudget("/api/books");
+    }
+
+    @Test
+    public void testGetBooksPage() throws Exception {
+        assertStatementBudget("/api/books?limit=5&sort=title");
+    }
+
+    @Test
+    public void testGetBookById() throws Exception {
+        assertStatementBudget("/api/books/" + bookRepository.findAll().get(0).getId());
+    }
+
+    @Test
+    public void testGetBooksByAuthorId() throws Exception {
+        Long authorId = bookRepository.findAll().get(0).getAuthor().getId();
+        assertStatementBudget("/api/books/author/" + authorId);
+        assertStatementBudget("/api/books/author/" + authorId + "?limit=5");
+    }
+
+    @Test
+    public void testGetAuthors() throws Exception {
+        assertStatementBudget("/api/authors");
+        assertStatementBudget("/api/authors/" + authorRepository.findAll().get(0).getId());
+    }
+
+    @Test
+    public void testGetAuthorByIdFromSecondLevelCache() {
+        Long authorId = authorRepository.findAll().get(0).getId();
+        authorService.getAuthorById(authorId);
+        statistics.clear();
+
+        authorService.getAuthorById(authorId);
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    public void testGetBooksByAuthorIdFromQueryCache() {
+        Author author = authorRepository.save(new Author("Query Cache Author", "Biography"));
+        Book first = new Book("Query Cache 1", null, new BigDecimal("10.00"), "Description");
+        first.setAuthor(author);
+        bookRepository.save(first);
+        bookService.getBooksByAuthorId(author.getId());
+        statistics.clear();
+
+        List<BookDto> books = bookService.getBooksByAuthorId(author.getId());
+
+        assertEquals(List.of("Query Cache 1"), books.stream().map(BookDto::getTitle).toList());
+        assertEquals("Query Cache Author", books.get(0).getAuthorName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        // A new book of the author makes the cached result stale
+        Book second = new Book("Query Cache 2", null, new BigDecimal("10.00"), "Description");
+        second.setAuthor(author);
+        bookRepository.save(second);
+        assertEquals(2, bookService.getBooksByAuthorId(author.getId()).size());
+    }
+
+    private void assertStatementBudget(String uri) throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(get(uri)).andExpect(status().isOk());
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= MAX_STATEMENTS_PER_REQUEST,
+                "GET " + uri + " issued " + statements + " SQL statements, budget is " + MAX_STATEMENTS_PER_REQUEST);
+    }
+}
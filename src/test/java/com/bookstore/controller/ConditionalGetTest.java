@@ -0,0 +1,195 @@
+package com.bookstore.controller;
+
+import com.bookstore.cache.ResponseCacheFilter;
+import com.bookstore.dto.AuthorDto;
+import com.bookstore.dto.BookDto;
+import com.bookstore.service.AuthorService;
+import com.bookstore.service.BookService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional GETs are answered from a version query, without loading the
+ * resource, and collection validators follow every change to the catalog.
+ * The response cache is off unless a test turns it on, so that the
+ * controllers answer.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@WithMockUser
+public class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ResponseCacheFilter responseCacheFilter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private boolean responseCacheEnabled;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        responseCacheEnabled = (boolean) ReflectionTestUtils.getField(responseCacheFilter, "enabled");
+        ReflectionTestUtils.setField(responseCacheFilter, "enabled", false);
+    }
+
+    @AfterEach
+    public void restore() {
+        ReflectionTestUtils.setField(responseCacheFilter, "enabled", responseCacheEnabled);
+    }
+
+    @Test
+    public void testGetBook_MatchingETagNotModifiedWithoutLoadingBook() throws Exception {
+        String uri = "/api/books/" + createBook(createAuthor("Conditional Book")).getId();
+        String eTag = eTag(uri);
+        assertTrue(eTag.startsWith("\""), "Single books get a strong ETag: " + eTag);
+
+        statistics.clear();
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().bytes(new byte[0]));
+
+        assertTrue(statistics.getPrepareStatementCount() <= 1,
+                "Version check issued " + statistics.getPrepareStatementCount() + " SQL statements");
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getSecondLevelCacheHitCount());
+
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+    }
+
+    @Test
+    public void testGetBook_ETagChangesOnUpdateAndAuthorRename() throws Exception {
+        AuthorDto author = createAuthor("Conditional Rename");
+        BookDto book = createBook(author);
+        String uri = "/api/books/" + book.getId();
+        String original = eTag(uri);
+
+        bookService.updateBook(book.getId(), new BookDto(null, "Retitled", null, new BigDecimal("11.00"),
+                "Description", author.getId(), null));
+        String updated = assertModified(uri, original);
+
+        authorService.updateAuthor(author.getId(), new AuthorDto(null, "Conditional Renamed", "Biography"));
+        assertModified(uri, updated);
+    }
+
+    @Test
+    public void testGetBooks_WeakETagChangesOnCreateDeleteAndAuthorRename() throws Exception {
+        AuthorDto author = createAuthor("Conditional Collection");
+        BookDto book = createBook(author);
+        String uri = "/api/books";
+        String authorUri = "/api/books/author/" + author.getId();
+        String original = eTag(uri);
+        String originalByAuthor = eTag(authorUri);
+        assertTrue(original.startsWith("W/\""), "Collections get a weak ETag: " + original);
+
+        statistics.clear();
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, original))
+                .andExpect(status().isNotModified());
+        assertTrue(statistics.getPrepareStatementCount() <= 1,
+                "Version check issued " + statistics.getPrepareStatementCount() + " SQL statements");
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        createBook(author);
+        String created = assertModified(uri, original);
+        String createdByAuthor = assertModified(authorUri, originalByAuthor);
+
+        bookService.deleteBook(book.getId());
+        String deleted = assertModified(uri, created);
+        String deletedByAuthor = assertModified(authorUri, createdByAuthor);
+
+        authorService.updateAuthor(author.getId(), new AuthorDto(null, "Conditional Collection 2", "Biography"));
+        assertModified(uri, deleted);
+        assertModified(authorUri, deletedByAuthor);
+    }
+
+    @Test
+    public void testGetAuthors_WeakETagChangesOnCreateAndRename() throws Exception {
+        String uri = "/api/authors";
+        String original = eTag(uri);
+
+        AuthorDto author = createAuthor("Conditional Authors");
+        String created = assertModified(uri, original);
+
+        authorService.updateAuthor(author.getId(), new AuthorDto(null, "Conditional Authors 2", "Biography"));
+        assertModified(uri, created);
+    }
+
+    @Test
+    public void testResponseCacheHit_NotModified() throws Exception {
+        ReflectionTestUtils.setField(responseCacheFilter, "enabled", true);
+        String uri = "/api/books/" + createBook(createAuthor("Conditional Cached")).getId();
+        String eTag = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Cache", "MISS"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        statistics.clear();
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("X-Cache", "HIT"))
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().bytes(new byte[0]));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    // Asserts the client's copy is stale, and returns the new ETag
+    private String assertModified(String uri, String eTag) throws Exception {
+        String current = mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, current, "GET " + uri + " kept its ETag");
+        return current;
+    }
+
+    private String eTag(String uri) throws Exception {
+        return mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private AuthorDto createAuthor(String name) {
+        return authorService.createAuthor(new AuthorDto(null, name, "Biography"));
+    }
+
+    private BookDto createBook(AuthorDto author) {
+        return bookService.createBook(new BookDto(null, "Conditional book", null, new BigDecimal("10.00"),
+                "Description", author.getId(), null));
+    }
+}
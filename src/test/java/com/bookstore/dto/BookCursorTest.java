@@ -0,0 +1,47 @@
+package com.bookstore.dto;
+
+import com.bookstore.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BookCursorTest {
+
+    @Test
+    public void testRoundTrip_TitleWithSeparator() {
+        BookCursor cursor = new BookCursor(BookSort.TITLE, "Me|You: A Story", 42L);
+
+        BookCursor decoded = BookCursor.decode(cursor.encode());
+
+        assertEquals(BookSort.TITLE, decoded.getSort());
+        assertEquals("Me|You: A Story", decoded.getKey());
+        assertEquals(42L, decoded.getId());
+    }
+
+    @Test
+    public void testRoundTrip_PriceAndCreatedDate() {
+        BookCursor price = BookCursor.decode(new BookCursor(BookSort.PRICE, new BigDecimal("19.99"), 7L).encode());
+        assertEquals(new BigDecimal("19.99"), price.getKey());
+
+        LocalDateTime created = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123456000);
+        BookCursor date = BookCursor.decode(new BookCursor(BookSort.CREATED_DATE, created, 8L).encode());
+        assertEquals(created, date.getKey());
+        assertEquals(8L, date.getId());
+    }
+
+    @Test
+    public void testDecode_InvalidToken() {
+        // Answered with 400, unlike other IllegalArgumentExceptions
+        assertThrows(InvalidRequestException.class, () -> BookCursor.decode("not a cursor"));
+        assertThrows(InvalidRequestException.class, () -> BookCursor.decode("aWR8eHg"));
+    }
+
+    @Test
+    public void testFromProperty_Unsupported() {
+        assertThrows(InvalidRequestException.class, () -> BookSort.fromProperty("password"));
+    }
+}
@@ -0,0 +1,30 @@
+package com.bookstore.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IsbnTest {
+
+    @Test
+    public void testKeyOf_Isbn10AndIsbn13ShareKey() {
+        assertEquals(9780306406157L, Isbn.keyOf("0-306-40615-2"));
+        assertEquals(9780306406157L, Isbn.keyOf("978-0-306-40615-7"));
+        assertEquals(9780306406157L, Isbn.keyOf("978 0306 406157"));
+        assertEquals(9780807014295L, Isbn.keyOf("080701429x"));
+        assertEquals(9791090636071L, Isbn.keyOf("9791090636071"));
+    }
+
+    @Test
+    public void testKeyOf_InvalidIsbns() {
+        assertNull(Isbn.keyOf(null));
+        assertNull(Isbn.keyOf(""));
+        assertNull(Isbn.keyOf("0-306-40615-3"));
+        assertNull(Isbn.keyOf("9780306406158"));
+        assertNull(Isbn.keyOf("1234567890123"));
+        assertNull(Isbn.keyOf("X306406152"));
+        assertThrows(IllegalArgumentException.class, () -> Isbn.parse("123"));
+    }
+}
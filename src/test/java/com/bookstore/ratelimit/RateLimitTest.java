@@ -0,0 +1,53 @@
+package com.bookstore.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.PathContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimitTest {
+
+    private static RateLimit limit(int capacity, Duration period) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setName("test");
+        route.setMethods(List.of("post"));
+        route.setPaths(List.of("/api/books/**"));
+        route.setCapacity(capacity);
+        route.setPeriod(period);
+        return new RateLimit(route);
+    }
+
+    @Test
+    public void testAcquire_BurstThenRefill() {
+        RateLimit limit = limit(3, Duration.ofSeconds(3));
+        long second = TimeUnit.SECONDS.toNanos(1);
+        long now = 1_000 * second;
+        AtomicLong bucket = new AtomicLong(now);
+
+        assertEquals(2, limit.acquire(bucket, now));
+        assertEquals(1, limit.acquire(bucket, now));
+        assertEquals(0, limit.acquire(bucket, now));
+        assertEquals(-second, limit.acquire(bucket, now));
+
+        // One token comes back per second, and an idle bucket holds no more than its capacity
+        assertEquals(0, limit.acquire(bucket, now + second));
+        assertEquals(2, limit.acquire(bucket, now + 60 * second));
+    }
+
+    @Test
+    public void testMatches_MethodAndPath() {
+        RateLimit limit = limit(1, Duration.ofMinutes(1));
+
+        assertTrue(limit.matches("POST", PathContainer.parsePath("/api/books")));
+        assertTrue(limit.matches("POST", PathContainer.parsePath("/api/books/1")));
+        assertFalse(limit.matches("GET", PathContainer.parsePath("/api/books/1")));
+        assertFalse(limit.matches("POST", PathContainer.parsePath("/api/authors")));
+    }
+}
@@ -0,0 +1,175 @@
+package com.bookstore.reactive;
+
+import com.bookstore.dto.AuthorDto;
+import com.bookstore.dto.BookDto;
+import com.bookstore.model.User;
+import com.bookstore.repository.UserRepository;
+import com.bookstore.security.JwtUtils;
+import com.bookstore.security.UserDetailsImpl;
+import com.bookstore.service.AuthorService;
+import com.bookstore.service.BookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The reactive API runs in its own servlet, outside Spring MVC, so its
+ * content negotiation, error bodies, authentication and rate limiting are
+ * checked over HTTP. The reads are limited to a few per user, and every test
+ * signs in as a new user.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "rate-limit.routes[0].name=reactive-reads",
+        "rate-limit.routes[0].methods[0]=GET",
+        "rate-limit.routes[0].paths[0]=/api/reactive/**",
+        "rate-limit.routes[0].capacity=5",
+        "rate-limit.routes[0].period=1m"
+})
+public class ReactiveCatalogTest {
+
+    private static final AtomicInteger NEXT_USER = new AtomicInteger();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Test
+    public void testGetBook_Json() {
+        AuthorDto author = createAuthor("Reactive Single");
+        BookDto book = createBook(author, "Reactive Book");
+
+        webTestClient.get().uri("/api/reactive/books/{id}", book.getId())
+                .header(HttpHeaders.AUTHORIZATION, bearer())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(book.getId())
+                .jsonPath("$.title").isEqualTo("Reactive Book")
+                .jsonPath("$.authorName").isEqualTo("Reactive Single");
+    }
+
+    @Test
+    public void testListing_JsonArrayOrNdjson() {
+        AuthorDto author = createAuthor("Reactive Listing");
+        BookDto first = createBook(author, "Reactive First");
+        BookDto second = createBook(author, "Reactive Second");
+        String token = bearer();
+
+        webTestClient.get().uri("/api/reactive/books/author/{authorId}", author.getId())
+                .header(HttpHeaders.AUTHORIZATION, token)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo(first.getId())
+                .jsonPath("$[1].id").isEqualTo(second.getId());
+
+        String ndjson = webTestClient.get().uri("/api/reactive/books/author/{authorId}", author.getId())
+                .header(HttpHeaders.AUTHORIZATION, token)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+        assertNotNull(ndjson);
+        String[] lines = ndjson.strip().split("\n");
+        assertEquals(2, lines.length, ndjson);
+        assertTrue(lines[0].startsWith("{\"id\":" + first.getId() + ","), lines[0]);
+        assertTrue(lines[1].startsWith("{\"id\":" + second.getId() + ","), lines[1]);
+    }
+
+    @Test
+    public void testNotFound_ErrorDetails() {
+        webTestClient.get().uri("/api/reactive/authors/{id}", Long.MAX_VALUE)
+                .header(HttpHeaders.AUTHORIZATION, bearer())
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.timestamp").exists()
+                .jsonPath("$.message").isEqualTo("Author not found with id: " + Long.MAX_VALUE)
+                .jsonPath("$.details").isEqualTo("uri=/api/reactive/authors/" + Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testIdOverflowingLong_BadRequest() {
+        webTestClient.get().uri("/api/reactive/books/99999999999999999999")
+                .header(HttpHeaders.AUTHORIZATION, bearer())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Invalid id: 99999999999999999999")
+                .jsonPath("$.details").isEqualTo("uri=/api/reactive/books/99999999999999999999");
+    }
+
+    @Test
+    public void testWithoutToken_Unauthorized() {
+        webTestClient.get().uri("/api/reactive/books")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    public void testRateLimited() {
+        String token = bearer();
+        for (int remaining = 4; remaining >= 0; remaining--) {
+            webTestClient.get().uri("/api/reactive/authors")
+                    .header(HttpHeaders.AUTHORIZATION, token)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals("RateLimit-Limit", "5")
+                    .expectHeader().valueEquals("RateLimit-Remaining", Integer.toString(remaining));
+        }
+
+        webTestClient.get().uri("/api/reactive/authors")
+                .header(HttpHeaders.AUTHORIZATION, token)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().exists(HttpHeaders.RETRY_AFTER);
+    }
+
+    // A token of a new user, so that each test has a rate limit bucket of its own
+    private String bearer() {
+        String name = "reactive" + NEXT_USER.incrementAndGet();
+        User user = userRepository.save(new User(name, name + "@example.com", "unused"));
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        return "Bearer " + jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private AuthorDto createAuthor(String name) {
+        return authorService.createAuthor(new AuthorDto(null, name, "Biography"));
+    }
+
+    private BookDto createBook(AuthorDto author, String title) {
+        return bookService.createBook(new BookDto(null, title, null, new BigDecimal("10.00"), "Description",
+                author.getId(), null));
+    }
+}
@@ -0,0 +1,47 @@
+package com.bookstore.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EnglishStemmerTest {
+
+    @Test
+    public void testStem_Plurals() {
+        assertEquals("wizard", EnglishStemmer.stem("wizards"));
+        assertEquals("story", EnglishStemmer.stem("stories"));
+        assertEquals("class", EnglishStemmer.stem("classes"));
+        assertEquals("box", EnglishStemmer.stem("boxes"));
+        assertEquals("church", EnglishStemmer.stem("churches"));
+        assertEquals("status", EnglishStemmer.stem("status"));
+        assertEquals("analysis", EnglishStemmer.stem("analysis"));
+        assertEquals("glass", EnglishStemmer.stem("glass"));
+    }
+
+    @Test
+    public void testStem_Suffixes() {
+        assertEquals("run", EnglishStemmer.stem("running"));
+        assertEquals("play", EnglishStemmer.stem("played"));
+        assertEquals("fill", EnglishStemmer.stem("filled"));
+        assertEquals("quick", EnglishStemmer.stem("quickly"));
+        assertEquals("sing", EnglishStemmer.stem("sing"));
+        assertEquals("need", EnglishStemmer.stem("need"));
+    }
+
+    @Test
+    public void testStem_LeavesShortAndNonAlphabeticWords() {
+        assertEquals("bus", EnglishStemmer.stem("bus"));
+        assertEquals("r2d2s", EnglishStemmer.stem("r2d2s"));
+        assertEquals("1984", EnglishStemmer.stem("1984"));
+    }
+
+    @Test
+    public void testAnalyze_FoldsDropsStopWordsAndKeepsIsbns() {
+        assertEquals(List.of("wizard", "bronte", "9780306406157"),
+                TextAnalyzer.analyze("The Wizard's Bront\u00eb 978-0-306-40615-7"));
+        assertEquals(List.of("run", "wizard"), TextAnalyzer.analyze("Running with WIZARDS"));
+        assertEquals(List.of(), TextAnalyzer.analyze(null));
+    }
+}
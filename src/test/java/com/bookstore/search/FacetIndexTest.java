@@ -0,0 +1,160 @@
+package com.bookstore.search;
+
+import com.bookstore.dto.AuthorDto;
+import com.bookstore.dto.BookDto;
+import com.bookstore.event.CatalogEvent;
+import com.bookstore.exception.InvalidRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FacetIndexTest {
+
+    private static final FacetFilter NO_FILTER = new FacetFilter(null, null, null, null);
+
+    private FacetIndex facetIndex;
+
+    @BeforeEach
+    public void setup() {
+        facetIndex = new FacetIndex();
+        ReflectionTestUtils.setField(facetIndex, "priceBounds", new BigDecimal[] {
+                new BigDecimal("20"), new BigDecimal("10")});
+        ReflectionTestUtils.setField(facetIndex, "maxValues", 50);
+        facetIndex.init();
+    }
+
+    @Test
+    public void testSelect_CountsIgnoreOwnSelection() {
+        add(1, 1, "9.99", "2024-01");
+        add(2, 1, "15.00", "2024-01");
+        add(3, 2, "15.00", "2024-02");
+        add(4, 2, "25.00", "2024-02");
+        add(5, 3, "12.00", "2024-03");
+
+        FacetIndex.Selection selection = facetIndex.select(
+                new FacetFilter(Set.of(1L), Set.of("10-20"), null, null), 10);
+
+        assertEquals(1, selection.getTotal());
+        assertArrayEquals(new long[] {2}, selection.getBookIds());
+        // Every author with a book at 10-20, not just the selected one
+        assertEquals(List.of("1=1", "2=1", "3=1"), counts(selection, FacetIndex.AUTHOR));
+        // Every price of the selected author, not just the selected bucket
+        assertEquals(List.of("0-10=1", "10-20=1"), counts(selection, FacetIndex.PRICE));
+        assertEquals(List.of("2024-01=1"), counts(selection, FacetIndex.MONTH));
+    }
+
+    @Test
+    public void testSelect_AlternativesWithinFacetAndLimit() {
+        add(1, 1, "5.00", "2024-01");
+        add(2, 2, "5.00", "2024-01");
+        add(3, 3, "5.00", "2024-01");
+        add(4, 1, "50.00", "2024-01");
+
+        FacetIndex.Selection selection = facetIndex.select(
+                new FacetFilter(Set.of(1L, 2L), Set.of("0-10"), null, null), 1);
+
+        assertEquals(2, selection.getTotal());
+        assertArrayEquals(new long[] {1}, selection.getBookIds());
+        // Largest counts first, then by author id
+        assertEquals(List.of("1=1", "2=1", "3=1"), counts(selection, FacetIndex.AUTHOR));
+        assertEquals(List.of("0-10=2", "20+=1"), counts(selection, FacetIndex.PRICE));
+    }
+
+    @Test
+    public void testSelect_PriceBuckets() {
+        add(1, 1, "9.99", "2024-01");
+        add(2, 1, "10.00", "2024-01");
+        add(3, 1, "19.99", "2024-01");
+        add(4, 1, "20.00", "2024-01");
+        add(5, 1, "500.00", "2024-01");
+        add(6, 1, null, "2024-01");
+
+        FacetIndex.Selection selection = facetIndex.select(NO_FILTER, 10);
+
+        assertEquals(6, selection.getTotal());
+        // Lower bounds are inclusive, and a book without a price has no bucket
+        assertEquals(List.of("0-10=1", "10-20=2", "20+=2"), counts(selection, FacetIndex.PRICE));
+        assertEquals(2, facetIndex.select(new FacetFilter(null, Set.of("20+"), null, null), 10).getTotal());
+        assertThrows(InvalidRequestException.class,
+                () -> facetIndex.select(new FacetFilter(null, Set.of("20-50"), null, null), 10));
+    }
+
+    @Test
+    public void testSelect_Months() {
+        add(1, 1, "5.00", "2023-12");
+        add(2, 1, "5.00", "2024-01");
+        add(3, 1, "5.00", "2024-01");
+        add(4, 1, "5.00", "2024-03");
+
+        // Most recent months first
+        assertEquals(List.of("2024-03=1", "2024-01=2", "2023-12=1"),
+                counts(facetIndex.select(NO_FILTER, 10), FacetIndex.MONTH));
+
+        FacetIndex.Selection range = facetIndex.select(
+                new FacetFilter(null, null, YearMonth.parse("2024-01"), YearMonth.parse("2024-02")), 10);
+        assertArrayEquals(new long[] {2, 3}, range.getBookIds());
+        assertEquals(List.of("2024-03=1", "2024-01=2", "2023-12=1"), counts(range, FacetIndex.MONTH));
+
+        FacetIndex.Selection from = facetIndex.select(
+                new FacetFilter(null, null, YearMonth.parse("2024-02"), null), 10);
+        assertArrayEquals(new long[] {4}, from.getBookIds());
+        assertThrows(InvalidRequestException.class, () -> facetIndex.select(
+                new FacetFilter(null, null, YearMonth.parse("2024-02"), YearMonth.parse("2024-01")), 10));
+    }
+
+    @Test
+    public void testEvents() {
+        add(1, 1, "5.00", "2024-01");
+        add(2, 1, "15.00", "2024-01");
+        add(3, 2, "25.00", "2024-02");
+
+        // Moved to another author, price and month
+        facetIndex.onCatalogEvent(CatalogEvent.bookUpdated(book(1, 2, "30.00", "2024-02"), 1L));
+        FacetIndex.Selection selection = facetIndex.select(NO_FILTER, 10);
+        assertEquals(List.of("2=2", "1=1"), counts(selection, FacetIndex.AUTHOR));
+        assertEquals(List.of("10-20=1", "20+=2"), counts(selection, FacetIndex.PRICE));
+        assertEquals(List.of("2024-02=2", "2024-01=1"), counts(selection, FacetIndex.MONTH));
+
+        facetIndex.onCatalogEvent(CatalogEvent.authorUpdated(new AuthorDto(2L, "Renamed", "Biography")));
+        assertEquals("Renamed", facetIndex.select(NO_FILTER, 10).getFacets().get(FacetIndex.AUTHOR).get(0).getLabel());
+
+        facetIndex.onCatalogEvent(CatalogEvent.bookDeleted(2L, 1L));
+        selection = facetIndex.select(NO_FILTER, 10);
+        assertArrayEquals(new long[] {1, 3}, selection.getBookIds());
+        assertEquals(List.of("2=2"), counts(selection, FacetIndex.AUTHOR));
+
+        facetIndex.onCatalogEvent(CatalogEvent.authorDeleted(2L));
+        selection = facetIndex.select(NO_FILTER, 10);
+        assertEquals(0, selection.getTotal());
+        assertEquals(List.of(), counts(selection, FacetIndex.AUTHOR));
+        assertEquals(List.of(), counts(selection, FacetIndex.PRICE));
+        assertEquals(List.of(), counts(selection, FacetIndex.MONTH));
+    }
+
+    private void add(long id, long authorId, String price, String month) {
+        facetIndex.onCatalogEvent(CatalogEvent.bookCreated(book(id, authorId, price, month)));
+    }
+
+    private static BookDto book(long id, long authorId, String price, String month) {
+        LocalDateTime createdDate = YearMonth.parse(month).atDay(15).atStartOfDay();
+        return new BookDto(id, "Book " + id, null, price != null ? new BigDecimal(price) : null, null, authorId,
+                "Author " + authorId, createdDate);
+    }
+
+    private static List<String> counts(FacetIndex.Selection selection, String facet) {
+        return selection.getFacets().get(facet).stream()
+                .map(count -> count.getValue() + "=" + count.getCount())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,152 @@
+package com.bookstore.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InvertedIndexTest {
+
+    @Test
+    public void testSearch_RanksByTermFrequency() {
+        InvertedIndex index = new InvertedIndex();
+        add(index, 1L, 0L, "wizard", "castle", "lake", "forest");
+        add(index, 2L, 0L, "wizard", "wizard", "wizard", "forest");
+        add(index, 3L, 0L, "dragon", "castle", "lake", "forest");
+
+        assertArrayEquals(new long[] {2L, 1L}, index.search(List.of("wizard"), 10));
+    }
+
+    @Test
+    public void testSearch_ShorterDocumentRanksHigher() {
+        InvertedIndex index = new InvertedIndex();
+        add(index, 1L, 0L, "wizard", "castle", "lake", "forest", "river", "mountain");
+        add(index, 2L, 0L, "wizard", "castle");
+        add(index, 3L, 0L, "dragon");
+
+        assertArrayEquals(new long[] {2L, 1L}, index.search(List.of("wizard"), 10));
+    }
+
+    @Test
+    public void testSearch_RareTermsWeighMore() {
+        InvertedIndex index = new InvertedIndex();
+        add(index, 1L, 0L, "common", "filler");
+        add(index, 2L, 0L, "rare", "filler");
+        add(index, 3L, 0L, "common", "other");
+        add(index, 4L, 0L, "common", "other");
+
+        long[] results = index.search(List.of("common", "rare"), 10);
+
+        assertEquals(4, results.length);
+        assertEquals(2L, results[0]);
+    }
+
+    @Test
+    public void testSearch_LimitAndNoMatches() {
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 1; id <= 5; id++) {
+            add(index, id, 0L, "book");
+        }
+
+        assertEquals(3, index.search(List.of("book"), 3).length);
+        assertEquals(0, index.search(List.of("missing"), 3).length);
+        assertEquals(0, index.search(List.of("book"), 0).length);
+    }
+
+    @Test
+    public void testSearch_ScoresSummedAcrossTermsForManyCandidates() {
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 1; id <= 5000; id++) {
+            add(index, id, 0L, "book", id % 1000 == 0 ? "dragon" : "filler", id % 2500 == 0 ? "castle" : "filler");
+        }
+
+        // Matching both rare terms beats matching one; every book matches "book"
+        long[] best = index.search(List.of("book", "dragon", "castle", "book"), 2);
+        Arrays.sort(best);
+        assertArrayEquals(new long[] {2500L, 5000L}, best);
+        assertEquals(5000, index.search(List.of("book"), 10_000).length);
+    }
+
+    @Test
+    public void testAdd_ReplacesDocumentAndMovesGroup() {
+        InvertedIndex index = new InvertedIndex();
+        add(index, 1L, 10L, "dune");
+        add(index, 2L, 10L, "messiah");
+
+        add(index, 1L, 20L, "arrakis");
+
+        assertEquals(2, index.size());
+        assertEquals(1, index.deletedCount());
+        assertEquals(0, index.search(List.of("dune"), 10).length);
+        assertArrayEquals(new long[] {1L}, index.search(List.of("arrakis"), 10));
+        assertArrayEquals(new long[] {2L}, index.externalIdsInGroup(10L));
+        assertArrayEquals(new long[] {1L}, index.externalIdsInGroup(20L));
+    }
+
+    @Test
+    public void testRemove() {
+        InvertedIndex index = new InvertedIndex();
+        add(index, 1L, 10L, "dune");
+        add(index, 2L, 10L, "dune");
+
+        assertTrue(index.remove(1L));
+        assertFalse(index.remove(1L));
+
+        assertArrayEquals(new long[] {2L}, index.search(List.of("dune"), 10));
+        assertArrayEquals(new long[] {2L}, index.externalIdsInGroup(10L));
+        assertTrue(index.remove(2L));
+        assertEquals(0, index.externalIdsInGroup(10L).length);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testCompact_KeepsLiveDocumentsAndRanking() {
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 1; id <= 2000; id++) {
+            add(index, id, id % 3, "book", id % 2 == 0 ? "even" : "odd");
+        }
+        add(index, 5000L, 7L, "wizard", "wizard", "book");
+        add(index, 5001L, 7L, "wizard", "book", "filler", "filler");
+        long[] before = index.search(List.of("wizard"), 10);
+        for (long id = 1; id <= 2000; id += 2) {
+            index.remove(id);
+        }
+
+        index.compact();
+
+        assertEquals(0, index.deletedCount());
+        assertEquals(1002, index.size());
+        assertEquals(0, index.search(List.of("odd"), 10).length);
+        assertEquals(1000, index.search(List.of("even"), 2000).length);
+        assertArrayEquals(before, index.search(List.of("wizard"), 10));
+        assertArrayEquals(new long[] {5000L, 5001L}, sorted(index.externalIdsInGroup(7L)));
+        assertEquals(333, index.externalIdsInGroup(0L).length);
+
+        // Documents added after compaction get the next dense ids
+        add(index, 6000L, 7L, "wizard", "wizard", "wizard");
+        assertEquals(6000L, index.search(List.of("wizard"), 1)[0]);
+        assertTrue(index.remove(5000L));
+        assertArrayEquals(new long[] {5001L, 6000L}, sorted(index.externalIdsInGroup(7L)));
+    }
+
+    private static void add(InvertedIndex index, long id, long group, String... terms) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        index.add(id, group, frequencies, terms.length);
+    }
+
+    private static long[] sorted(long[] ids) {
+        long[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
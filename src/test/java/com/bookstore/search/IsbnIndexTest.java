@@ -0,0 +1,61 @@
+package com.bookstore.search;
+
+import com.bookstore.dto.BookDto;
+import com.bookstore.event.CatalogEvent;
+import com.bookstore.model.Isbn;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class IsbnIndexTest {
+
+    private static final String ANIMAL_FARM = "9780451526342";
+    private static final String DUNE = "9780441172719";
+    private static final String EMMA = "9780141439587";
+
+    private final IsbnIndex isbnIndex = new IsbnIndex();
+
+    @Test
+    public void testEvents() {
+        isbnIndex.onCatalogEvent(CatalogEvent.bookCreated(book(1, 1, ANIMAL_FARM)));
+        isbnIndex.onCatalogEvent(CatalogEvent.bookCreated(book(2, 1, "978-0-441-17271-9")));
+        assertEquals(1, find(ANIMAL_FARM));
+        assertEquals(2, find(DUNE));
+
+        // A changed ISBN frees the old one
+        isbnIndex.onCatalogEvent(CatalogEvent.bookUpdated(book(1, 1, EMMA), 1L));
+        assertEquals(IsbnIndex.NO_BOOK, find(ANIMAL_FARM));
+        assertEquals(1, find(EMMA));
+
+        isbnIndex.onCatalogEvent(CatalogEvent.bookDeleted(2L, 1L));
+        assertEquals(IsbnIndex.NO_BOOK, find(DUNE));
+
+        isbnIndex.onCatalogEvent(CatalogEvent.authorDeleted(1L));
+        assertEquals(0, isbnIndex.size());
+    }
+
+    @Test
+    public void testBooksDeleted_EachPurgeChunk() {
+        isbnIndex.onCatalogEvent(CatalogEvent.bookCreated(book(1, 1, ANIMAL_FARM)));
+        isbnIndex.onCatalogEvent(CatalogEvent.bookCreated(book(2, 1, DUNE)));
+        isbnIndex.onCatalogEvent(CatalogEvent.bookCreated(book(3, 2, EMMA)));
+
+        isbnIndex.onCatalogEvent(CatalogEvent.booksDeleted(List.of(1L, 3L)));
+
+        assertEquals(IsbnIndex.NO_BOOK, find(ANIMAL_FARM));
+        assertEquals(2, find(DUNE));
+        assertEquals(IsbnIndex.NO_BOOK, find(EMMA));
+        assertEquals(1, isbnIndex.size());
+    }
+
+    private long find(String isbn) {
+        return isbnIndex.findBookId(Isbn.keyOf(isbn));
+    }
+
+    private static BookDto book(long id, long authorId, String isbn) {
+        return new BookDto(id, "Book " + id, isbn, new BigDecimal("10.00"), null, authorId, "Author " + authorId);
+    }
+}
@@ -0,0 +1,34 @@
+package com.bookstore.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LongLongHashMapTest {
+
+    @Test
+    public void testRandomOperations_MatchHashMap() {
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals((long) expected.getOrDefault(key, -1L), map.remove(key, -1L));
+                expected.remove(key);
+            } else {
+                long value = random.nextLong();
+                assertEquals((long) expected.getOrDefault(key, -1L), map.put(key, value, -1L));
+                expected.put(key, value);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 5_000; key++) {
+            assertEquals((long) expected.getOrDefault(key, -1L), map.get(key, -1L));
+        }
+    }
+}
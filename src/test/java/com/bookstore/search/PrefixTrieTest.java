@@ -0,0 +1,77 @@
+package com.bookstore.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrefixTrieTest {
+
+    @Test
+    public void testSuggest_MatchesWordStartsRankedByScore() {
+        PrefixTrie trie = new PrefixTrie(10, 20);
+        trie.put(1L, "Harry Potter and the Philosopher's Stone", 5);
+        trie.put(2L, "Harry Potter and the Chamber of Secrets", 9);
+        trie.put(3L, "The Hobbit", 1);
+
+        assertEquals(List.of(2L, 1L), ids(trie.suggest("harry", 10)));
+        assertEquals(List.of(2L, 1L), ids(trie.suggest("POT", 10)));
+        assertEquals(List.of(1L), ids(trie.suggest("philosophers st", 10)));
+        assertEquals(List.of(2L, 1L, 3L), ids(trie.suggest("the", 10)));
+        assertTrue(trie.suggest("arry", 10).isEmpty());
+    }
+
+    @Test
+    public void testRemoveAndRescore_RefillFromSubtree() {
+        PrefixTrie trie = new PrefixTrie(2, 20);
+        trie.put(1L, "Dune", 3);
+        trie.put(2L, "Dune Messiah", 2);
+        trie.put(3L, "Dungeon Crawl", 1);
+        assertEquals(List.of(1L, 2L), ids(trie.suggest("dun", 10)));
+
+        trie.remove(1L);
+        assertEquals(List.of(2L, 3L), ids(trie.suggest("dun", 10)));
+
+        trie.updateScore(3L, 10);
+        assertEquals(List.of(3L, 2L), ids(trie.suggest("d", 10)));
+
+        trie.put(2L, "Children of Dune", 2);
+        assertEquals(List.of(2L), ids(trie.suggest("chi", 10)));
+        assertTrue(trie.suggest("dune m", 10).isEmpty());
+    }
+
+    @Test
+    public void testSuggest_FoldsAccentsAndChecksBeyondMaxDepth() {
+        PrefixTrie trie = new PrefixTrie(10, 4);
+        trie.startBulkLoad();
+        trie.put(1L, "Charlotte Bront\u00eb", 0);
+        trie.put(2L, "Charles Dickens", 0);
+        trie.finishBulkLoad();
+
+        assertEquals(List.of(1L), ids(trie.suggest("bronte", 10)));
+        assertEquals(List.of(2L), ids(trie.suggest("charles", 10)));
+        assertEquals(List.of(2L, 1L), ids(trie.suggest("char", 10)));
+    }
+
+    @Test
+    public void testSuggest_BeyondMaxDepthLooksPastTopK() {
+        PrefixTrie trie = new PrefixTrie(2, 20);
+        trie.put(1L, "Harry Potter and the Philosopher's Stone", 9);
+        trie.put(2L, "Harry Potter and the Chamber of Secrets", 8);
+        trie.put(3L, "Harry Potter and the Prisoner of Azkaban", 7);
+        trie.put(4L, "Harry Potter and the Deathly Hallows", 1);
+
+        // All four share the 20 indexed characters, and the node keeps only the best two
+        assertEquals(List.of(4L), ids(trie.suggest("harry potter and the d", 10)));
+        assertEquals(List.of(1L, 3L), ids(trie.suggest("harry potter and the p", 10)));
+        assertEquals(List.of(1L), ids(trie.suggest("harry potter and the p", 1)));
+        assertTrue(trie.suggest("harry potter and the x", 10).isEmpty());
+    }
+
+    private static List<Long> ids(List<PrefixTrie.Entry> entries) {
+        return entries.stream().map(PrefixTrie.Entry::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,76 @@
+package com.bookstore.security;
+
+import com.bookstore.model.Role;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JwtUtilsTest {
+
+    private static final String SECRET = "5A7234753778214125442A472D4B6150645367566B59703373367639792F423F";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    public void setup() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheSize", 100L);
+        ReflectionTestUtils.setField(jwtUtils, "rejectionLogInterval", Duration.ofSeconds(10));
+        jwtUtils.init();
+    }
+
+    @Test
+    public void testParseClaims_RoundTrip() {
+        String token = generate();
+
+        Claims claims = jwtUtils.parseClaims(token);
+
+        assertEquals("alice", claims.getSubject());
+        assertEquals(7L, claims.get(JwtUtils.CLAIM_USER_ID, Long.class));
+        assertEquals("ADMIN", claims.get(JwtUtils.CLAIM_ROLE, String.class));
+        assertEquals(3L, claims.get(JwtUtils.CLAIM_TOKEN_VERSION, Long.class));
+        // The second lookup is answered from the verified-token cache
+        assertSame(claims, jwtUtils.parseClaims(token));
+    }
+
+    @Test
+    public void testParseClaims_Rejected() {
+        String token = generate();
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertNull(jwtUtils.parseClaims(tampered));
+        assertNull(jwtUtils.parseClaims("not.a.token"));
+        assertNull(jwtUtils.parseClaims("garbage"));
+    }
+
+    @Test
+    public void testIsWellFormed_ChecksStructureOnly() {
+        String token = generate();
+        String header = token.substring(0, token.indexOf('.'));
+
+        assertTrue(jwtUtils.isWellFormed(token));
+        assertFalse(jwtUtils.isWellFormed("eyJhbGciOiJub25lIn0" + token.substring(header.length())));
+        assertFalse(jwtUtils.isWellFormed(token + "A"));
+        assertFalse(jwtUtils.isWellFormed(token + ".A"));
+        assertFalse(jwtUtils.isWellFormed(header + "..sig"));
+        assertFalse(jwtUtils.isWellFormed(token.replace('.', '!')));
+    }
+
+    private String generate() {
+        UserDetailsImpl principal = new UserDetailsImpl(7L, "alice", "alice@example.com", null, Role.ADMIN, 3L);
+        return jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
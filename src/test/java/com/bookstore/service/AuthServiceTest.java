@@ -0,0 +1,112 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.LoginRequest;
+import com.bookstore.dto.SignupRequest;
+import com.bookstore.model.User;
+import com.bookstore.repository.UserRepository;
+import com.bookstore.security.JwtUtils;
+import com.bookstore.security.PasswordHasher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * The hashing threads only hash: the database writes that follow a hash run
+ * on the task executor.
+ */
+@ExtendWith(MockitoExtension.class)
+public class AuthServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private JwtUtils jwtUtils;
+
+    @InjectMocks
+    private AuthService authService;
+
+    private ExecutorService hashingThread;
+
+    private ExecutorService taskThread;
+
+    private final AtomicReference<String> writtenOn = new AtomicReference<>();
+
+    @BeforeEach
+    public void setup() {
+        hashingThread = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "password-hasher-1"));
+        taskThread = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "task-1"));
+        ReflectionTestUtils.setField(authService, "taskExecutor", taskThread);
+    }
+
+    @AfterEach
+    public void shutdown() {
+        hashingThread.shutdownNow();
+        taskThread.shutdownNow();
+    }
+
+    @Test
+    public void testRegisterUser_SavedOffTheHashingThread() throws Exception {
+        when(passwordHasher.encode("password")).thenReturn(CompletableFuture.supplyAsync(() -> "hash", hashingThread));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            writtenOn.set(Thread.currentThread().getName());
+            return invocation.getArgument(0);
+        });
+        SignupRequest request = new SignupRequest();
+        request.setUsername("offhasher");
+        request.setEmail("offhasher@example.com");
+        request.setPassword("password");
+
+        assertEquals("User registered successfully!", authService.registerUser(request).get(5, TimeUnit.SECONDS)
+                .getMessage());
+        assertEquals("task-1", writtenOn.get());
+    }
+
+    @Test
+    public void testAuthenticateUser_RehashSavedOffTheHashingThread() throws Exception {
+        User user = new User("rehashed", "rehashed@example.com", "old-hash");
+        user.setId(7L);
+        when(userRepository.findByUsername("rehashed")).thenReturn(Optional.of(user));
+        when(passwordHasher.matches("password", "old-hash"))
+                .thenReturn(CompletableFuture.supplyAsync(() -> true, hashingThread));
+        when(passwordHasher.needsRehash("old-hash")).thenReturn(true);
+        when(passwordHasher.encode("password")).thenReturn(CompletableFuture.supplyAsync(() -> "new-hash", hashingThread));
+        when(jwtUtils.generateJwtToken(any())).thenReturn("token");
+        CountDownLatch updated = new CountDownLatch(1);
+        when(userRepository.updatePassword(eq(7L), eq("old-hash"), anyString())).thenAnswer(invocation -> {
+            writtenOn.set(Thread.currentThread().getName());
+            updated.countDown();
+            return 1;
+        });
+        LoginRequest request = new LoginRequest();
+        request.setUsername("rehashed");
+        request.setPassword("password");
+
+        assertEquals("token", authService.authenticateUser(request).get(5, TimeUnit.SECONDS).getToken());
+        assertTrue(updated.await(5, TimeUnit.SECONDS), "The password was not re-hashed");
+        assertEquals("task-1", writtenOn.get());
+    }
+}
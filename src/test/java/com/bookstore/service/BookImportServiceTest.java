@@ -0,0 +1,192 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.AuthorDto;
+import com.bookstore.dto.BookDto;
+import com.bookstore.dto.ImportReport;
+import com.bookstore.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class BookImportServiceTest {
+
+    // ISBNs not used by the preloaded data or other tests
+    private static final AtomicLong NEXT_ISBN = new AtomicLong(979_100_000_000L + System.nanoTime() % 1_000_000);
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Test
+    public void testCsvImport_QuotedFieldsAndAuthorResolution() throws IOException {
+        AuthorDto existing = authorService.createAuthor(new AuthorDto(null, "Imported Existing", "Biography"));
+        String isbn = nextIsbn();
+
+        ImportReport report = importBooks(CatalogFormat.CSV, "title,isbn,price,description,authorName\n"
+                + "\"Dune, Part One\"," + isbn + ",9.99,\"A \"\"classic\"\"\nin two lines\",Imported New\n"
+                + "Second,,12.50,,Imported New\n"
+                + "Third,,7,,Imported Existing\n");
+
+        assertEquals(3, report.getImported());
+        assertEquals(0, report.getRejected());
+        assertEquals(1, report.getAuthorsCreated());
+        assertEquals(1, bookService.getBooksByAuthorId(existing.getId()).size());
+        AuthorDto created = authorNamed("Imported New");
+        List<BookDto> books = bookService.getBooksByAuthorId(created.getId());
+        assertEquals(2, books.size());
+        BookDto dune = books.stream().filter(book -> book.getIsbn() != null).findFirst().orElseThrow();
+        assertEquals("Dune, Part One", dune.getTitle());
+        assertEquals("A \"classic\"\nin two lines", dune.getDescription());
+        assertEquals(new BigDecimal("9.99"), dune.getPrice());
+    }
+
+    @Test
+    public void testCsvImport_RejectsBadRows() throws IOException {
+        AuthorDto author = authorService.createAuthor(new AuthorDto(null, "Import Rejections", "Biography"));
+        long id = author.getId();
+
+        ImportReport report = importBooks(CatalogFormat.CSV, "title,isbn,price,authorId,authorName\n"
+                + ",,9.99," + id + ",\n"
+                + "No price,,," + id + ",\n"
+                + "Bad price,,abc," + id + ",\n"
+                + "Free,,0," + id + ",\n"
+                + "Bad ISBN,123,5," + id + ",\n"
+                + "Bad author,,5,x,\n"
+                + "Unknown author,,5,999999999,\n"
+                + "No author,,5,,\n"
+                + "Good,,5," + id + ",\n");
+
+        assertEquals(1, report.getImported());
+        assertEquals(8, report.getRejected());
+        List<String> rejections = report.getRejections().stream()
+                .map(rejection -> rejection.getLine() + ": " + rejection.getMessage())
+                .toList();
+        assertEquals(List.of(
+                "2: Title is required",
+                "3: Price is required",
+                "4: Invalid price: abc",
+                "5: Price must be positive",
+                "6: Invalid ISBN: 123",
+                "7: Invalid author ID: x",
+                "8: Author not found with id: 999999999",
+                "9: Author ID or name is required"), rejections);
+        assertEquals(1, bookService.getBooksByAuthorId(id).size());
+    }
+
+    @Test
+    public void testNdjsonImport_DuplicateIsbnsAndMalformedLines() throws IOException {
+        AuthorDto author = authorService.createAuthor(new AuthorDto(null, "Import Duplicates", "Biography"));
+        String taken = nextIsbn();
+        bookService.createBook(new BookDto(null, "Already here", taken, new BigDecimal("10.00"), "Description",
+                author.getId(), null));
+        String fresh = nextIsbn();
+        String freshHyphenated = fresh.substring(0, 3) + "-" + fresh.substring(3);
+
+        ImportReport report = importBooks(CatalogFormat.NDJSON,
+                row("Taken", taken, author.getId())
+                        + row("Fresh", fresh, author.getId())
+                        + "{\"title\": \"Broken\"\n"
+                        + "\n"
+                        + row("Fresh again", freshHyphenated, author.getId()));
+
+        assertEquals(1, report.getImported());
+        List<String> rejections = report.getRejections().stream()
+                .map(rejection -> rejection.getLine() + ": " + rejection.getMessage())
+                .toList();
+        assertEquals(List.of(
+                "1: Duplicate ISBN: " + taken,
+                "3: Malformed JSON",
+                "5: Duplicate ISBN: " + freshHyphenated), rejections);
+        assertEquals(2, bookService.getBooksByAuthorId(author.getId()).size());
+    }
+
+    @Test
+    public void testImport_InChunks() throws IOException {
+        AuthorDto author = authorService.createAuthor(new AuthorDto(null, "Import Chunks", "Biography"));
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            ndjson.append(row("Chunked " + i, nextIsbn(), author.getId()));
+        }
+
+        int chunkSize = (int) ReflectionTestUtils.getField(bookImportService, "chunkSize");
+        ReflectionTestUtils.setField(bookImportService, "chunkSize", 2);
+        ImportReport report;
+        try {
+            report = importBooks(CatalogFormat.NDJSON, ndjson.toString());
+        } finally {
+            ReflectionTestUtils.setField(bookImportService, "chunkSize", chunkSize);
+        }
+
+        assertEquals(5, report.getImported());
+        assertEquals(5, bookService.getBooksByAuthorId(author.getId()).size());
+    }
+
+    @Test
+    public void testImport_DatabaseRejectsOnlyTheFailingRow() throws IOException {
+        AuthorDto author = authorService.createAuthor(new AuthorDto(null, "Import Database Errors", "Biography"));
+
+        // The title is too long for its column, which only the database checks
+        ImportReport report = importBooks(CatalogFormat.CSV, "title,price,authorId,authorName\n"
+                + "Before,10,,Import Created In Chunk\n"
+                + "x".repeat(300) + ",10," + author.getId() + ",\n"
+                + "After,10," + author.getId() + ",\n");
+
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getRejected());
+        assertEquals(1, report.getAuthorsCreated());
+        ImportReport.RejectedRow rejection = report.getRejections().get(0);
+        assertEquals(3, rejection.getLine());
+        assertTrue(rejection.getMessage().startsWith("Rejected by database: "), rejection.getMessage());
+        assertEquals(1, bookService.getBooksByAuthorId(author.getId()).size());
+        assertEquals(1, bookService.getBooksByAuthorId(authorNamed("Import Created In Chunk").getId()).size());
+    }
+
+    @Test
+    public void testCsvImport_MissingColumns() {
+        assertThrows(InvalidRequestException.class,
+                () -> importBooks(CatalogFormat.CSV, "title,isbn\nDune,\n"));
+    }
+
+    private ImportReport importBooks(CatalogFormat format, String body) throws IOException {
+        return bookImportService.importBooks(format,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private AuthorDto authorNamed(String name) {
+        return authorService.getAllAuthors().stream()
+                .filter(author -> author.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static String row(String title, String isbn, Long authorId) {
+        return "{\"title\":\"" + title + "\",\"isbn\":\"" + isbn + "\",\"price\":10,\"authorId\":" + authorId + "}\n";
+    }
+
+    private static String nextIsbn() {
+        String digits = Long.toString(NEXT_ISBN.getAndIncrement());
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+}
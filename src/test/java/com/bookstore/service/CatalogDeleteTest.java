@@ -0,0 +1,180 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.AuthorDto;
+import com.bookstore.dto.BookDto;
+import com.bookstore.dto.PurgeJob;
+import com.bookstore.event.CatalogEvent;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Single-row and bulk deletes are set-based statements whose cost does not
+ * grow with the number of rows, and large purges run in chunks in the
+ * background.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class CatalogDeleteTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private PurgeService purgeService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEventMulticaster eventMulticaster;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testDeleteAuthor_StatementsIndependentOfBookCount() {
+        AuthorDto small = authorWithBooks("Delete Small", 1);
+        AuthorDto large = authorWithBooks("Delete Large", 20);
+
+        long smallStatements = statementsFor(() -> authorService.deleteAuthor(small.getId()));
+        long largeStatements = statementsFor(() -> authorService.deleteAuthor(large.getId()));
+
+        assertEquals(smallStatements, largeStatements);
+        // The books went with the author, through the foreign key
+        assertTrue(bookService.getBooksByAuthorId(large.getId()).isEmpty());
+        assertThrows(EntityNotFoundException.class, () -> authorService.getAuthorById(large.getId()));
+    }
+
+    @Test
+    public void testDeleteBook() {
+        AuthorDto author = authorWithBooks("Delete Book", 2);
+        BookDto book = bookService.getBooksByAuthorId(author.getId()).get(0);
+
+        bookService.deleteBook(book.getId());
+
+        assertEquals(1, bookService.getBooksByAuthorId(author.getId()).size());
+        assertThrows(EntityNotFoundException.class, () -> bookService.deleteBook(book.getId()));
+        assertThrows(EntityNotFoundException.class, () -> authorService.deleteAuthor(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testPurgeAuthor_InChunks() throws InterruptedException {
+        AuthorDto author = authorWithBooks("Purge Chunks", 7);
+
+        int chunkSize = (int) ReflectionTestUtils.getField(purgeService, "chunkSize");
+        ReflectionTestUtils.setField(purgeService, "chunkSize", 2);
+        PurgeJob job;
+        try {
+            job = await(purgeService.purgeAuthor(author.getId()));
+        } finally {
+            ReflectionTestUtils.setField(purgeService, "chunkSize", chunkSize);
+        }
+
+        assertEquals(PurgeJob.Status.COMPLETED, job.getStatus());
+        assertEquals(8, job.getTotal());
+        assertEquals(8, job.getDeleted());
+        assertEquals(100, job.getPercentComplete());
+        assertTrue(bookService.getBooksByAuthorId(author.getId()).isEmpty());
+        assertThrows(EntityNotFoundException.class, () -> authorService.getAuthorById(author.getId()));
+        assertThrows(EntityNotFoundException.class, () -> purgeService.purgeAuthor(author.getId()));
+    }
+
+    @Test
+    public void testPurgeAuthor_PublishesEachChunkOfBooks() throws InterruptedException {
+        AuthorDto author = authorWithBooks("Purge Events", 3);
+        List<Long> bookIds = bookService.getBooksByAuthorId(author.getId()).stream().map(BookDto::getId).sorted().toList();
+        List<CatalogEvent> events = new CopyOnWriteArrayList<>();
+        ApplicationListener<ApplicationEvent> listener = applicationEvent -> {
+            if (applicationEvent instanceof PayloadApplicationEvent<?> payload
+                    && payload.getPayload() instanceof CatalogEvent event) {
+                events.add(event);
+            }
+        };
+
+        int chunkSize = (int) ReflectionTestUtils.getField(purgeService, "chunkSize");
+        ReflectionTestUtils.setField(purgeService, "chunkSize", 2);
+        eventMulticaster.addApplicationListener(listener);
+        try {
+            await(purgeService.purgeAuthor(author.getId()));
+        } finally {
+            eventMulticaster.removeApplicationListener(listener);
+            ReflectionTestUtils.setField(purgeService, "chunkSize", chunkSize);
+        }
+
+        // Each chunk of books as it commits, before the bulk change that ends the job
+        assertEquals(List.of(CatalogEvent.Type.BOOKS_DELETED, CatalogEvent.Type.BOOKS_DELETED,
+                CatalogEvent.Type.BULK_CHANGE), events.stream().map(CatalogEvent::getType).toList());
+        assertEquals(bookIds.subList(0, 2), events.get(0).getBookIds());
+        assertEquals(bookIds.subList(2, 3), events.get(1).getBookIds());
+    }
+
+    @Test
+    public void testFinishedJobsPrunedOldestFirst() throws InterruptedException {
+        int maxRetainedJobs = (int) ReflectionTestUtils.getField(purgeService, "maxRetainedJobs");
+        ReflectionTestUtils.setField(purgeService, "maxRetainedJobs", 2);
+        try {
+            List<PurgeJob> finished = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                finished.add(await(purgeService.purgeAuthor(authorWithBooks("Purge Pruned " + i, 1).getId())));
+                Thread.sleep(5);
+            }
+
+            assertThrows(EntityNotFoundException.class, () -> purgeService.getJob(finished.get(0).getId()));
+            assertThrows(EntityNotFoundException.class, () -> purgeService.getJob(finished.get(1).getId()));
+            assertEquals(finished.get(2), purgeService.getJob(finished.get(2).getId()));
+            assertEquals(finished.get(3), purgeService.getJob(finished.get(3).getId()));
+        } finally {
+            ReflectionTestUtils.setField(purgeService, "maxRetainedJobs", maxRetainedJobs);
+        }
+    }
+
+    private AuthorDto authorWithBooks(String name, int books) {
+        AuthorDto author = authorService.createAuthor(new AuthorDto(null, name, "Biography"));
+        for (int i = 0; i < books; i++) {
+            bookService.createBook(new BookDto(null, name + " " + i, null, new BigDecimal("10.00"), "Description",
+                    author.getId(), null));
+        }
+        return author;
+    }
+
+    private long statementsFor(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static PurgeJob await(PurgeJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isFinished(), "Purge job did not finish");
+        return job;
+    }
+}
@@ -0,0 +1,94 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.AuthorDto;
+import com.bookstore.dto.BookChange;
+import com.bookstore.dto.BookDto;
+import com.bookstore.dto.ChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class ChangeFeedServiceTest {
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Test
+    public void testChangesSinceCursor() {
+        String since = latestCursor();
+        AuthorDto author = authorService.createAuthor(new AuthorDto(null, "Feed Author", "Biography"));
+        BookDto first = bookService.createBook(book("First", author.getId()));
+        BookDto second = bookService.createBook(book("Second", author.getId()));
+        bookService.updateBook(first.getId(), book("First, revised", author.getId()));
+        bookService.deleteBook(second.getId());
+
+        ChangeFeed feed = changeFeedService.getChanges(since, null);
+
+        assertFalse(feed.isHasMore());
+        assertEquals(2, feed.getChanges().size());
+        BookChange upsert = feed.getChanges().get(0);
+        assertEquals(BookChange.Type.UPSERT, upsert.getType());
+        assertEquals(first.getId(), upsert.getBookId());
+        assertEquals("First, revised", upsert.getBook().getTitle());
+        BookChange delete = feed.getChanges().get(1);
+        assertEquals(BookChange.Type.DELETE, delete.getType());
+        assertEquals(second.getId(), delete.getBookId());
+        assertNull(delete.getBook());
+
+        assertTrue(changeFeedService.getChanges(feed.getCursor(), null).getChanges().isEmpty());
+    }
+
+    @Test
+    public void testPagingAndAuthorDelete() {
+        String since = latestCursor();
+        AuthorDto author = authorService.createAuthor(new AuthorDto(null, "Paged Author", "Biography"));
+        for (int i = 0; i < 5; i++) {
+            bookService.createBook(book("Paged " + i, author.getId()));
+        }
+        authorService.deleteAuthor(author.getId());
+
+        List<BookChange> changes = new ArrayList<>();
+        ChangeFeed page;
+        do {
+            page = changeFeedService.getChanges(since, 2);
+            changes.addAll(page.getChanges());
+            since = page.getCursor();
+        } while (page.isHasMore());
+
+        assertEquals(5, changes.size());
+        for (BookChange change : changes) {
+            assertEquals(BookChange.Type.DELETE, change.getType());
+            assertEquals(author.getId(), change.getAuthorId());
+        }
+    }
+
+    private String latestCursor() {
+        ChangeFeed feed;
+        String cursor = null;
+        do {
+            feed = changeFeedService.getChanges(cursor, null);
+            cursor = feed.getCursor();
+        } while (feed.isHasMore());
+        return cursor;
+    }
+
+    private static BookDto book(String title, Long authorId) {
+        return new BookDto(null, title, null, new BigDecimal("10.00"), "Description", authorId, null);
+    }
+}
@@ -0,0 +1,62 @@
+package com.bookstore.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CsvRecordReaderTest {
+
+    @Test
+    public void testPlainFields() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("title,price\nDune,9.99\n"));
+
+        assertEquals(List.of("title", "price"), reader.next());
+        assertEquals(List.of("Dune", "9.99"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void testQuotedFields() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(
+                "\"Me, Myself\",\"She said \"\"hi\"\"\",\"two\nlines\",\"\"\n"));
+
+        assertEquals(List.of("Me, Myself", "She said \"hi\"", "two\nlines", ""), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void testLineNumbersAcrossQuotedLineBreaks() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a\r\n\"b\nc\"\r\nd"));
+
+        assertEquals(List.of("a"), reader.next());
+        assertEquals(1, reader.getRecordLine());
+        assertEquals(List.of("b\nc"), reader.next());
+        assertEquals(2, reader.getRecordLine());
+        // No line break after the last record
+        assertEquals(List.of("d"), reader.next());
+        assertEquals(4, reader.getRecordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void testEmptyFieldsAndQuoteInsideUnquotedField() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(",5\" ruler,\n"));
+
+        assertEquals(List.of("", "5\" ruler", ""), reader.next());
+    }
+
+    @Test
+    public void testUnterminatedQuote() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("ok\n\"never closed,\n"));
+
+        reader.next();
+        IOException e = assertThrows(IOException.class, reader::next);
+        assertEquals("Unterminated quoted field starting on line 2", e.getMessage());
+    }
+}
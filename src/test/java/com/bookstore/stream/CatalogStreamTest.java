@@ -0,0 +1,329 @@
+package com.bookstore.stream;
+
+import com.bookstore.controller.CatalogStreamController;
+import com.bookstore.dto.BookDto;
+import com.bookstore.event.CatalogEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Drives {@link CatalogStream} through its controller with a buffer of
+ * {@value #BUFFER_SIZE} events and a replay buffer of {@value #REPLAY_SIZE}.
+ * Tests that need a slow consumer hold the single writer thread until the
+ * events are offered.
+ */
+public class CatalogStreamTest {
+
+    private static final int BUFFER_SIZE = 4;
+    private static final int REPLAY_SIZE = 8;
+
+    private CatalogStream catalogStream;
+    private SimpleMeterRegistry registry;
+    private MockMvc mockMvc;
+
+    private long nextBookId = 1;
+
+    @BeforeEach
+    public void setup() {
+        catalogStream = new CatalogStream();
+        ReflectionTestUtils.setField(catalogStream, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(catalogStream, "bufferSize", BUFFER_SIZE);
+        ReflectionTestUtils.setField(catalogStream, "replaySize", REPLAY_SIZE);
+        ReflectionTestUtils.setField(catalogStream, "overflow", CatalogStream.OverflowPolicy.DISCONNECT);
+        ReflectionTestUtils.setField(catalogStream, "timeout", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(catalogStream, "heartbeatInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(catalogStream, "reconnectDelay", Duration.ofSeconds(3));
+        ReflectionTestUtils.setField(catalogStream, "writerThreads", 2);
+        catalogStream.init();
+        registry = new SimpleMeterRegistry();
+        catalogStream.bindTo(registry);
+
+        CatalogStreamController controller = new CatalogStreamController();
+        ReflectionTestUtils.setField(controller, "catalogStream", catalogStream);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    public void shutdown() {
+        catalogStream.shutdown();
+    }
+
+    @Test
+    public void testEvents_InOrderForEverySubscriber() throws Exception {
+        // Room for the whole burst, which the writers may fall behind on
+        ReflectionTestUtils.setField(catalogStream, "bufferSize", 32);
+        MvcResult first = subscribe(null);
+        MvcResult second = subscribe(null);
+
+        List<Long> published = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            published.add(publish());
+        }
+
+        assertEquals(published, bookIds(await(first, frames -> bookIds(frames).size() == 20)));
+        assertEquals(published, bookIds(await(second, frames -> bookIds(frames).size() == 20)));
+        List<Frame> frames = frames(first);
+        for (int i = 1; i < frames.size(); i++) {
+            if (frames.get(i - 1).id != null) {
+                assertTrue(Long.parseLong(frames.get(i).id) > Long.parseLong(frames.get(i - 1).id));
+            }
+        }
+        assertEquals(2, subscribers());
+    }
+
+    @Test
+    public void testOverflow_Drop() throws Exception {
+        ReflectionTestUtils.setField(catalogStream, "overflow", CatalogStream.OverflowPolicy.DROP);
+        ExecutorService writer = singleWriter();
+        MvcResult result = subscribe(null);
+        await(result, frames -> frames.stream().anyMatch(frame -> "connected".equals(frame.comment)));
+
+        CountDownLatch release = hold(writer);
+        List<Long> published = new ArrayList<>();
+        for (int i = 0; i < BUFFER_SIZE + 3; i++) {
+            published.add(publish());
+        }
+        release.countDown();
+
+        List<Frame> frames = await(result, received -> bookIds(received).size() == BUFFER_SIZE);
+        Frame dropped = frames.stream().filter(frame -> "dropped".equals(frame.event)).findFirst().orElseThrow();
+        assertEquals("{\"count\":3}", dropped.data);
+        // The newest events are kept, and the client hears about the loss before them
+        assertEquals(published.subList(3, published.size()), bookIds(frames));
+        assertTrue(frames.indexOf(dropped) < frames.indexOf(frames.stream()
+                .filter(frame -> "BOOK_CREATED".equals(frame.event)).findFirst().orElseThrow()));
+        assertEquals(3, registry.get("catalog.stream.dropped").functionCounter().count());
+        assertEquals(1, subscribers());
+    }
+
+    @Test
+    public void testOverflow_Disconnect() throws Exception {
+        ExecutorService writer = singleWriter();
+        MvcResult slow = subscribe(null);
+        await(slow, frames -> frames.stream().anyMatch(frame -> "connected".equals(frame.comment)));
+
+        CountDownLatch release = hold(writer);
+        for (int i = 0; i < BUFFER_SIZE + 1; i++) {
+            publish();
+        }
+        // Removed as soon as its buffer overflows, before the writer gets to it
+        assertEquals(0, subscribers());
+        assertEquals(1, registry.get("catalog.stream.overflow.disconnects").functionCounter().count());
+        release.countDown();
+
+        MvcResult next = subscribe(null);
+        Long published = publish();
+        assertEquals(List.of(published), bookIds(await(next, frames -> !bookIds(frames).isEmpty())));
+        // The buffered events are discarded rather than sent
+        assertTrue(bookIds(frames(slow)).isEmpty());
+    }
+
+    @Test
+    public void testLastEventId_ResumesAfterIt() throws Exception {
+        MvcResult first = subscribe(null);
+        List<Long> published = List.of(publish(), publish(), publish());
+        List<Frame> events = await(first, frames -> bookIds(frames).size() == 3).stream()
+                .filter(frame -> "BOOK_CREATED".equals(frame.event))
+                .toList();
+
+        MvcResult resumed = subscribe(events.get(0).id);
+        assertEquals(published.subList(1, 3), bookIds(await(resumed, frames -> bookIds(frames).size() == 2)));
+        // Already current: nothing is replayed
+        MvcResult current = subscribe(events.get(2).id);
+
+        Long live = publish();
+        assertEquals(List.of(published.get(1), published.get(2), live),
+                bookIds(await(resumed, frames -> bookIds(frames).size() == 3)));
+        List<Frame> frames = await(current, received -> !bookIds(received).isEmpty());
+        assertEquals(List.of(live), bookIds(frames));
+        assertTrue(frames.stream().noneMatch(frame -> "reset".equals(frame.event)));
+    }
+
+    @Test
+    public void testLastEventId_ResetWhenNoLongerHeld() throws Exception {
+        ReflectionTestUtils.setField(catalogStream, "bufferSize", 32);
+        MvcResult first = subscribe(null);
+        for (int i = 0; i < REPLAY_SIZE + 2; i++) {
+            publish();
+        }
+        List<Frame> events = await(first, frames -> bookIds(frames).size() == REPLAY_SIZE + 2).stream()
+                .filter(frame -> "BOOK_CREATED".equals(frame.event))
+                .toList();
+        String latest = events.get(events.size() - 1).id;
+
+        // Older than the replay buffer, from the future, and not an id at all
+        for (String lastEventId : List.of(events.get(0).id, Long.toString(Long.parseLong(latest) + 5), "abc")) {
+            List<Frame> frames = await(subscribe(lastEventId),
+                    received -> received.stream().anyMatch(frame -> "reset".equals(frame.event)));
+            Frame reset = frames.stream().filter(frame -> "reset".equals(frame.event)).findFirst().orElseThrow();
+            assertEquals(latest, reset.id);
+            assertTrue(bookIds(frames).isEmpty());
+        }
+
+        // The oldest id still held resumes after it
+        String oldestHeld = events.get(events.size() - REPLAY_SIZE).id;
+        List<Frame> frames = await(subscribe(oldestHeld), received -> bookIds(received).size() == REPLAY_SIZE - 1);
+        assertTrue(frames.stream().noneMatch(frame -> "reset".equals(frame.event)));
+    }
+
+    @Test
+    public void testSubscribersRemovedOnCompletionErrorAndTimeout() throws Exception {
+        MvcResult completed = subscribe(null);
+        MvcResult failed = subscribe(null);
+        MvcResult timedOut = subscribe(null);
+        assertEquals(3, subscribers());
+
+        asyncContext(completed).complete();
+        assertEquals(2, subscribers());
+
+        for (AsyncListener listener : asyncContext(failed).getListeners()) {
+            listener.onError(new AsyncEvent(asyncContext(failed), new IOException("Broken pipe")));
+        }
+        assertEquals(1, subscribers());
+
+        for (AsyncListener listener : asyncContext(timedOut).getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext(timedOut)));
+        }
+        assertEquals(0, subscribers());
+
+        MvcResult open = subscribe(null);
+        Long published = publish();
+        await(open, frames -> !bookIds(frames).isEmpty());
+        for (MvcResult closed : List.of(completed, failed, timedOut)) {
+            assertTrue(bookIds(frames(closed)).isEmpty());
+        }
+        assertEquals(List.of(published), bookIds(frames(open)));
+    }
+
+    private MvcResult subscribe(String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/stream/catalog");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private Long publish() {
+        long id = nextBookId++;
+        catalogStream.onCatalogEvent(CatalogEvent.bookCreated(new BookDto(id, "Book " + id, null,
+                new BigDecimal("10.00"), null, 1L, "Author")));
+        return id;
+    }
+
+    private double subscribers() {
+        return registry.get("catalog.stream.subscribers").gauge().value();
+    }
+
+    // Replaces the writers with a single thread, which hold() can keep busy
+    private ExecutorService singleWriter() {
+        ExecutorService writers = (ExecutorService) ReflectionTestUtils.getField(catalogStream, "writers");
+        writers.shutdownNow();
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        ReflectionTestUtils.setField(catalogStream, "writers", writer);
+        return writer;
+    }
+
+    private static CountDownLatch hold(ExecutorService writer) {
+        CountDownLatch release = new CountDownLatch(1);
+        writer.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        return release;
+    }
+
+    private static MockAsyncContext asyncContext(MvcResult result) {
+        return (MockAsyncContext) result.getRequest().getAsyncContext();
+    }
+
+    private static List<Frame> await(MvcResult result, Predicate<List<Frame>> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            List<Frame> frames = frames(result);
+            if (condition.test(frames)) {
+                return frames;
+            }
+            Thread.sleep(10);
+        }
+        fail("Stream did not receive the expected events: " + result.getResponse().getContentAsString());
+        return null;
+    }
+
+    private static List<Frame> frames(MvcResult result) throws Exception {
+        List<Frame> frames = new ArrayList<>();
+        // The stream is read while it is still being written; only frames ending in a blank line are complete
+        String content = result.getResponse().getContentAsString();
+        int complete = content.lastIndexOf("\n\n");
+        if (complete < 0) {
+            return frames;
+        }
+        for (String block : content.substring(0, complete).split("\n\n")) {
+            Frame frame = new Frame();
+            for (String line : block.split("\n")) {
+                if (line.startsWith("id:")) {
+                    frame.id = line.substring(3);
+                } else if (line.startsWith("event:")) {
+                    frame.event = line.substring(6);
+                } else if (line.startsWith("data:")) {
+                    frame.data = line.substring(5);
+                } else if (line.startsWith(":")) {
+                    frame.comment = line.substring(1);
+                }
+            }
+            frames.add(frame);
+        }
+        return frames;
+    }
+
+    private static List<Long> bookIds(List<Frame> frames) {
+        List<Long> ids = new ArrayList<>();
+        for (Frame frame : frames) {
+            if ("BOOK_CREATED".equals(frame.event)) {
+                int start = frame.data.indexOf("\"id\":") + 5;
+                int end = start;
+                while (Character.isDigit(frame.data.charAt(end))) {
+                    end++;
+                }
+                ids.add(Long.valueOf(frame.data.substring(start, end)));
+            }
+        }
+        return ids;
+    }
+
+    private static class Frame {
+        String id;
+        String event;
+        String data;
+        String comment;
+    }
+}